@@ -0,0 +1,560 @@
+package bank;
+
+import java.util.*;
+
+/**
+ * die Transaktionen eines Kontos in der Reihenfolge, in der sie hinzugefügt wurden. Ein Hash-Index nach
+ * {@link Transaction#equals(Object)} und {@link Transaction#hashCode()} macht Prüfen auf Duplikate und Entfernen
+ * unabhängig von der Anzahl der Transaktionen. Die Liste für {@link #asList()} wird nur nach einer Änderung neu
+ * erstellt. Der Kontostand wird beim Hinzufügen und Entfernen exakt in Tausendsteln ({@link Money}) mitgeführt und
+ * nur nach geänderten Zinsen einmal neu berechnet. Für sortierte Abfragen gibt es ab der ersten Abfrage einen Index
+ * nach berechnetem Betrag, der bei jeder Änderung mitgeführt wird. Zusätzlich sind die Transaktionen mit positivem
+ * und negativem Betrag getrennt abgelegt, jeweils mit Anzahl und Summe. Für Abfragen nach Zeitraum gibt es ab der
+ * ersten Abfrage einen Index nach Datum, für den Kontostand zu einem Zeitpunkt zusätzlich Präfixsummen über diesen
+ * Index. Mit einer {@link RateTable} werden die Payments mit deren Zinsen berechnet. Nach einer Änderung der Tabelle
+ * werden Kontostand, Partitionen und Index nach Betrag bei der nächsten Abfrage einmal neu berechnet.
+ */
+public class Account implements TransactionStore {
+
+    /**
+     * jede Transaktion auf den Betrag, mit dem sie in Kontostand, Partitionen und Indizes gezählt ist. Entfernt wird
+     * mit diesem Betrag, auch wenn sich der berechnete Betrag inzwischen geändert hat, z.B. weil ein Payment eigene
+     * Zinsen bekommen hat. Neu berechnet wird er erst mit {@link #reindex()} oder nach einer Änderung der Zinstabelle.
+     */
+    private final LinkedHashMap<Transaction, Amount> transactions = new LinkedHashMap<>();
+    private List<Transaction> snapshot;
+    /**
+     * die Zinstabelle der Bank oder null, wenn jedes Payment seine eigenen Zinsen hat
+     */
+    private final RateTable rateTable;
+    /**
+     * die Version der Zinstabelle, mit der Kontostand, Partitionen und Index nach Betrag berechnet sind
+     */
+    private long rateVersion;
+    /**
+     * Summe der berechneten Beträge in Tausendsteln, gültig solange sumValid gesetzt ist
+     */
+    private long sum;
+    private boolean sumValid = true;
+    /**
+     * Transaktionen nach berechnetem Betrag wie {@link Transaction#calculate()}, ungerundet und wie mit
+     * {@link Double#compare(double, double)} verglichen, bei gleichem Betrag in Einfügereihenfolge. null, solange noch
+     * nicht sortiert abgefragt wurde.
+     */
+    private TreeMap<Double, LinkedHashSet<Transaction>> byAmount;
+    private List<Transaction> ascending;
+    private List<Transaction> descending;
+    /**
+     * Transaktionen nach Datum in Sekunden, bei gleichem Datum in Einfügereihenfolge. Transaktionen mit unbekanntem
+     * Datumsformat fehlen. null, solange noch nicht nach Zeitraum abgefragt wurde.
+     */
+    private TreeMap<Long, LinkedHashSet<Transaction>> byDate;
+    /**
+     * die verschiedenen Daten aus byDate aufsteigend und in prefix die Summe der Beträge in Tausendsteln bis
+     * einschließlich dieses Datums. null nach jeder Änderung, neu aufgebaut bei der nächsten Abfrage.
+     */
+    private long[] dates;
+    private long[] prefix;
+    /**
+     * Transaktionen mit berechnetem Betrag größer bzw. kleiner als 0 in Einfügereihenfolge, Beträge von 0 sind in
+     * keiner der beiden
+     */
+    private final Partition positive = new Partition();
+    private final Partition negative = new Partition();
+
+    /**
+     * der gezählte Betrag einer Transaktion
+     *
+     * @param minor in Tausendsteln wie {@link Transaction#calculateMinor()}, für Summen
+     * @param value ungerundet wie {@link Transaction#calculate()}, für Sortierung
+     */
+    private record Amount(long minor, double value) {
+
+        static Amount of(Transaction transaction) {
+            return new Amount(transaction.calculateMinor(), transaction.calculate());
+        }
+    }
+
+    /**
+     * Transaktionen mit gleichem Vorzeichen und ihre Summe in Tausendsteln
+     */
+    private static class Partition {
+        private final LinkedHashSet<Transaction> transactions = new LinkedHashSet<>();
+        private long sum;
+        private List<Transaction> view;
+
+        void add(Transaction transaction, long amount) {
+            transactions.add(transaction);
+            sum += amount;
+            view = null;
+        }
+
+        void remove(Transaction transaction, long amount) {
+            transactions.remove(transaction);
+            sum -= amount;
+            view = null;
+        }
+
+        void clear() {
+            transactions.clear();
+            sum = 0;
+            view = null;
+        }
+
+        List<Transaction> view() {
+            if (view == null) {
+                view = Collections.unmodifiableList(new ArrayList<>(transactions));
+            }
+            return view;
+        }
+    }
+
+    /**
+     * Konstruktor für ein leeres Konto
+     */
+    public Account() {
+        this.rateTable = null;
+    }
+
+    /**
+     * Konstruktor für ein leeres Konto, dessen Payments mit den Zinsen der Tabelle berechnet werden
+     *
+     * @param rateTable die Zinstabelle, z.B. die einer Bank
+     */
+    public Account(RateTable rateTable) {
+        this.rateTable = rateTable;
+        this.rateVersion = rateTable.getVersion();
+    }
+
+    /**
+     * Konstruktor, übernimmt die Transaktionen ohne Duplikate
+     *
+     * @param transactions die Transaktionen in ihrer Reihenfolge
+     */
+    public Account(Collection<Transaction> transactions) {
+        this.rateTable = null;
+        for (Transaction transaction : transactions) {
+            this.transactions.putIfAbsent(transaction, Amount.of(transaction));
+        }
+        sumValid = false;
+        partition();
+    }
+
+    /**
+     * prüft, ob die Transaktion schon im Konto ist
+     *
+     * @param transaction die gesuchte Transaktion
+     * @return true, wenn eine gleiche Transaktion existiert
+     */
+    @Override
+    public boolean contains(Transaction transaction) {
+        return transactions.containsKey(transaction);
+    }
+
+    /**
+     * fügt eine Transaktion am Ende hinzu
+     *
+     * @param transaction die Transaktion
+     * @return false, wenn eine gleiche Transaktion schon existiert
+     */
+    @Override
+    public boolean add(Transaction transaction) {
+        refresh();
+        if (transactions.containsKey(transaction)) {
+            return false;
+        }
+        if (rateTable != null && transaction instanceof Payment payment) {
+            payment.useRates(rateTable);
+        }
+        snapshot = null;
+        Amount counted = Amount.of(transaction);
+        long amount = counted.minor();
+        transactions.put(transaction, counted);
+        if (sumValid) {
+            sum += amount;
+        }
+        Partition partition = partitionOf(counted);
+        if (partition != null) {
+            partition.add(transaction, amount);
+        }
+        if (byAmount != null) {
+            byAmount.computeIfAbsent(counted.value(), key -> new LinkedHashSet<>()).add(transaction);
+            ascending = null;
+            descending = null;
+        }
+        if (byDate != null) {
+            indexDate(transaction);
+        }
+        dates = null;
+        prefix = null;
+        return true;
+    }
+
+    /**
+     * entfernt eine Transaktion
+     *
+     * @param transaction die Transaktion
+     * @return false, wenn es keine gleiche Transaktion gibt
+     */
+    @Override
+    public boolean remove(Transaction transaction) {
+        refresh();
+        Amount counted = transactions.remove(transaction);
+        if (counted == null) {
+            return false;
+        }
+        snapshot = null;
+        long amount = counted.minor();
+        if (sumValid) {
+            sum -= amount;
+        }
+        Partition partition = partitionOf(counted);
+        if (partition != null) {
+            partition.remove(transaction, amount);
+        }
+        if (byAmount != null) {
+            Set<Transaction> bucket = byAmount.get(counted.value());
+            bucket.remove(transaction);
+            if (bucket.isEmpty()) {
+                byAmount.remove(counted.value());
+            }
+            ascending = null;
+            descending = null;
+        }
+        long second = transaction.getEpochSecond();
+        if (byDate != null && second != TransactionDate.UNKNOWN) {
+            Set<Transaction> bucket = byDate.get(second);
+            bucket.remove(transaction);
+            if (bucket.isEmpty()) {
+                byDate.remove(second);
+            }
+        }
+        dates = null;
+        prefix = null;
+        return true;
+    }
+
+    /**
+     * gibt die Anzahl der Transaktionen zurück
+     *
+     * @return die Anzahl
+     */
+    @Override
+    public int size() {
+        return transactions.size();
+    }
+
+    /**
+     * gibt die Transaktionen in ihrer Reihenfolge als unveränderliche Liste zurück
+     *
+     * @return die Transaktionen
+     */
+    @Override
+    public List<Transaction> asList() {
+        if (snapshot == null) {
+            snapshot = Collections.unmodifiableList(new ArrayList<>(transactions.keySet()));
+        }
+        return snapshot;
+    }
+
+    /**
+     * baut den Index neu auf. Muss aufgerufen werden, nachdem sich Attribute geändert haben, die in
+     * {@link Transaction#hashCode()} oder in den berechneten Betrag eingehen, z.B. die eigenen Zinsen eines Payments.
+     */
+    public void reindex() {
+        List<Transaction> ordered = new ArrayList<>(transactions.keySet());
+        transactions.clear();
+        for (Transaction transaction : ordered) {
+            transactions.putIfAbsent(transaction, null);
+        }
+        snapshot = null;
+        byDate = null;
+        recalculate();
+    }
+
+    /**
+     * rechnet nach, wenn sich die Zinstabelle seit der letzten Berechnung geändert hat
+     */
+    private void refresh() {
+        if (rateTable != null && rateTable.getVersion() != rateVersion) {
+            recalculate();
+        }
+    }
+
+    /**
+     * berechnet die gezählten Beträge neu, verwirft alles, was von ihnen abhängt, und verteilt die Transaktionen neu
+     * auf die Partitionen
+     */
+    private void recalculate() {
+        if (rateTable != null) {
+            // vor dem Rechnen gelesen, damit eine Änderung währenddessen beim nächsten Mal noch erkannt wird
+            rateVersion = rateTable.getVersion();
+        }
+        for (Map.Entry<Transaction, Amount> entry : transactions.entrySet()) {
+            entry.setValue(Amount.of(entry.getKey()));
+        }
+        sumValid = false;
+        byAmount = null;
+        ascending = null;
+        descending = null;
+        dates = null;
+        prefix = null;
+        partition();
+    }
+
+    /**
+     * gibt die Transaktionen eines Zeitraums nach Datum sortiert zurück, bei gleichem Datum in Einfügereihenfolge.
+     * Transaktionen mit unbekanntem Datumsformat sind nie enthalten.
+     *
+     * @param from Beginn in Sekunden seit dem 01.01.1970, einschließlich
+     * @param to   Ende in Sekunden seit dem 01.01.1970, ausschließlich
+     * @return die Transaktionen
+     */
+    @Override
+    public List<Transaction> between(long from, long to) {
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        List<Transaction> result = new ArrayList<>();
+        for (Set<Transaction> bucket : dateIndex().subMap(from, true, to, false).values()) {
+            result.addAll(bucket);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * gibt den Kontostand zu einem Zeitpunkt in Tausendsteln zurück: die Summe aller Transaktionen, deren Datum nicht
+     * später ist. Transaktionen mit unbekanntem Datumsformat zählen nicht mit. Nach einer Änderung werden die
+     * Präfixsummen einmal neu aufgebaut, danach ist jede Abfrage eine binäre Suche.
+     *
+     * @param second der Zeitpunkt in Sekunden seit dem 01.01.1970, einschließlich
+     * @return der Kontostand in Tausendsteln
+     */
+    @Override
+    public long balanceAsOfMinor(long second) {
+        refresh();
+        if (dates == null) {
+            TreeMap<Long, LinkedHashSet<Transaction>> index = dateIndex();
+            dates = new long[index.size()];
+            prefix = new long[index.size()];
+            long running = 0;
+            int i = 0;
+            for (Map.Entry<Long, LinkedHashSet<Transaction>> entry : index.entrySet()) {
+                for (Transaction transaction : entry.getValue()) {
+                    running += transactions.get(transaction).minor();
+                }
+                dates[i] = entry.getKey();
+                prefix[i++] = running;
+            }
+        }
+        int position = Arrays.binarySearch(dates, second);
+        // ohne Treffer liefert binarySearch -(Einfügeposition) - 1, davor liegt das letzte frühere Datum
+        int last = position >= 0 ? position : -position - 2;
+        return last < 0 ? 0 : prefix[last];
+    }
+
+    private TreeMap<Long, LinkedHashSet<Transaction>> dateIndex() {
+        if (byDate == null) {
+            byDate = new TreeMap<>();
+            for (Transaction transaction : transactions.keySet()) {
+                indexDate(transaction);
+            }
+        }
+        return byDate;
+    }
+
+    private void indexDate(Transaction transaction) {
+        long second = transaction.getEpochSecond();
+        if (second != TransactionDate.UNKNOWN) {
+            byDate.computeIfAbsent(second, key -> new LinkedHashSet<>()).add(transaction);
+        }
+    }
+
+    /**
+     * gibt die Transaktionen mit positivem oder negativem berechneten Betrag in Einfügereihenfolge als
+     * unveränderliche Liste zurück
+     *
+     * @param positive true für Beträge größer 0, false für Beträge kleiner 0
+     * @return die Transaktionen
+     */
+    @Override
+    public List<Transaction> byType(boolean positive) {
+        refresh();
+        return (positive ? this.positive : negative).view();
+    }
+
+    /**
+     * gibt die Anzahl der Transaktionen mit positivem oder negativem berechneten Betrag zurück
+     *
+     * @param positive true für Beträge größer 0, false für Beträge kleiner 0
+     * @return die Anzahl
+     */
+    @Override
+    public int countByType(boolean positive) {
+        refresh();
+        return (positive ? this.positive : negative).transactions.size();
+    }
+
+    /**
+     * gibt die Summe der positiven oder negativen berechneten Beträge in Tausendsteln zurück
+     *
+     * @param positive true für Beträge größer 0, false für Beträge kleiner 0
+     * @return die Summe in Tausendsteln
+     */
+    @Override
+    public long sumByTypeMinor(boolean positive) {
+        refresh();
+        return (positive ? this.positive : negative).sum;
+    }
+
+    /**
+     * gibt die k betragsmäßig größten Gutschriften (positive) bzw. Belastungen (negative) zurück, die größte zuerst und
+     * bei gleichem Betrag in Einfügereihenfolge. Gibt es schon den sortierten Index, werden nur k Einträge gelesen,
+     * sonst wird die Partition einmal mit einem Heap aus höchstens k Einträgen durchlaufen.
+     *
+     * @param k        wie viele Transaktionen höchstens zurückgegeben werden
+     * @param positive true für Gutschriften, false für Belastungen
+     * @return die Transaktionen
+     */
+    @Override
+    public List<Transaction> top(int k, boolean positive) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        refresh();
+        List<Transaction> top = new ArrayList<>(Math.min(k, countByType(positive)));
+        if (k == 0) {
+            return top;
+        }
+        if (byAmount != null) {
+            // -0.0 liegt vor 0.0, beide gehören zu keiner Seite
+            Map<Double, LinkedHashSet<Transaction>> buckets = positive
+                    ? byAmount.tailMap(0.0, false).descendingMap()
+                    : byAmount.headMap(-0.0, false);
+            for (Set<Transaction> bucket : buckets.values()) {
+                for (Transaction transaction : bucket) {
+                    if (top.size() == k) {
+                        return top;
+                    }
+                    top.add(transaction);
+                }
+            }
+            return top;
+        }
+
+        // an der Spitze steht der kleinste Betrag, bei gleichem Betrag der zuletzt eingefügte
+        record Candidate(double magnitude, int index, Transaction transaction) {
+        }
+        Comparator<Candidate> rank = Comparator.comparingDouble(Candidate::magnitude)
+                .thenComparing(Comparator.comparingInt(Candidate::index).reversed());
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(Math.min(k, countByType(positive)) + 1, rank);
+        int index = 0;
+        for (Transaction transaction : (positive ? this.positive : negative).transactions) {
+            Candidate candidate = new Candidate(Math.abs(transactions.get(transaction).value()), index++, transaction);
+            if (heap.size() < k) {
+                heap.add(candidate);
+            } else if (rank.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+        while (!heap.isEmpty()) {
+            top.add(heap.poll().transaction());
+        }
+        Collections.reverse(top);
+        return top;
+    }
+
+    /**
+     * gibt die Partition für einen berechneten Betrag zurück. Entscheidend ist wie bisher das Vorzeichen von
+     * {@link Transaction#calculate()}, auch wenn der Betrag auf Tausendstel gerundet 0 ist.
+     *
+     * @param amount der Betrag
+     * @return die Partition oder null bei einem Betrag von 0
+     */
+    private Partition partitionOf(Amount amount) {
+        return amount.value() > 0 ? positive : amount.value() < 0 ? negative : null;
+    }
+
+    /**
+     * verteilt alle Transaktionen neu auf die beiden Partitionen
+     */
+    private void partition() {
+        positive.clear();
+        negative.clear();
+        for (Map.Entry<Transaction, Amount> entry : transactions.entrySet()) {
+            Partition partition = partitionOf(entry.getValue());
+            if (partition != null) {
+                partition.add(entry.getKey(), entry.getValue().minor());
+            }
+        }
+    }
+
+    /**
+     * gibt die Transaktionen nach berechnetem Betrag wie {@link Transaction#calculate()} sortiert als unveränderliche
+     * Liste zurück. Bei gleichem Betrag bleibt in beiden Richtungen die Einfügereihenfolge erhalten. Ohne Änderung
+     * seit der letzten Abfrage wird dieselbe Liste zurückgegeben.
+     *
+     * @param asc true für aufsteigend, false für absteigend
+     * @return die sortierten Transaktionen
+     */
+    @Override
+    public List<Transaction> sorted(boolean asc) {
+        refresh();
+        if (byAmount == null) {
+            byAmount = new TreeMap<>();
+            for (Map.Entry<Transaction, Amount> entry : transactions.entrySet()) {
+                byAmount.computeIfAbsent(entry.getValue().value(), amount -> new LinkedHashSet<>())
+                        .add(entry.getKey());
+            }
+        }
+        if (asc && ascending == null) {
+            ascending = flatten(byAmount.values());
+        } else if (!asc && descending == null) {
+            descending = flatten(byAmount.descendingMap().values());
+        }
+        return asc ? ascending : descending;
+    }
+
+    private List<Transaction> flatten(Collection<LinkedHashSet<Transaction>> buckets) {
+        List<Transaction> list = new ArrayList<>(transactions.size());
+        for (Set<Transaction> bucket : buckets) {
+            list.addAll(bucket);
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * gibt den Kontostand in Tausendsteln zurück: die exakte Summe der auf drei Nachkommastellen gerundeten Beträge
+     *
+     * @return der Kontostand in Tausendsteln
+     */
+    @Override
+    public long balanceMinor() {
+        refresh();
+        if (!sumValid) {
+            sum = 0;
+            for (Amount amount : transactions.values()) {
+                sum += amount.minor();
+            }
+            sumValid = true;
+        }
+        return sum;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this)
+            return true;
+
+        if (!(obj instanceof TransactionStore store))
+            return false;
+
+        return asList().equals(store.asList());
+    }
+
+    @Override
+    public int hashCode() {
+        return asList().hashCode();
+    }
+}
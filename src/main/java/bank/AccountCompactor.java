@@ -0,0 +1,147 @@
+package bank;
+
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * fasst im Hintergrund die Protokolle der Konten einer {@link PrivateBank} zusammen. Sobald das Protokoll eines
+ * Kontos eine Mindestgröße erreicht, wird der aktuelle Stand als JSON-Datei geschrieben und das Protokoll auf die
+ * Einträge gekürzt, die währenddessen hinzugekommen sind. Damit das Zusammenfassen die Platte nicht auslastet, wird
+ * beim Schreiben höchstens die eingestellte Anzahl Bytes pro Sekunde geschrieben.
+ */
+public class AccountCompactor implements Closeable {
+
+    private final PrivateBank bank;
+    private final long minLogBytes;
+    private final long bytesPerSecond;
+    private ScheduledExecutorService executor;
+    /**
+     * der letzte Fehler beim Zusammenfassen eines Kontos oder null
+     */
+    private volatile Exception lastFailure;
+
+    /**
+     * Konstruktor
+     *
+     * @param bank           die Bank, deren Konten zusammengefasst werden
+     * @param minLogBytes    ab dieser Größe in Bytes wird ein Protokoll zusammengefasst
+     * @param bytesPerSecond höchstens so viele Bytes pro Sekunde werden geschrieben, 0 für unbegrenzt
+     */
+    public AccountCompactor(PrivateBank bank, long minLogBytes, long bytesPerSecond) {
+        if (minLogBytes < 0 || bytesPerSecond < 0) {
+            throw new IllegalArgumentException("Sizes must not be negative");
+        }
+        this.bank = bank;
+        this.minLogBytes = minLogBytes;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * startet das regelmäßige Zusammenfassen in einem eigenen Hintergrund-Thread
+     *
+     * @param periodMillis Abstand zwischen zwei Durchläufen in Millisekunden
+     */
+    public synchronized void start(long periodMillis) {
+        if (executor != null) {
+            throw new IllegalStateException("Compactor is already running");
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "account-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::compactNow, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * fasst sofort alle Konten zusammen, deren Protokoll die Mindestgröße erreicht hat. Ein Konto, das nicht
+     * zusammengefasst werden kann, z.B. wegen einer beschädigten Kontodatei, wird übersprungen und sein Fehler in
+     * {@link #getLastFailure()} vermerkt, damit es weder die anderen Konten noch spätere Durchläufe aufhält.
+     *
+     * @return die Anzahl der zusammengefassten Konten
+     */
+    public int compactNow() {
+        int compacted = 0;
+        for (String account : bank.accountsWithLogSize(minLogBytes)) {
+            try {
+                if (bank.compactAccount(account, out -> bytesPerSecond == 0 ? out : new ThrottledOutputStream(out, bytesPerSecond))) {
+                    compacted++;
+                }
+            } catch (IOException | RuntimeException e) {
+                lastFailure = e;
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * gibt den letzten Fehler beim Zusammenfassen eines Kontos zurück
+     *
+     * @return der Fehler oder null, wenn bisher jedes Konto zusammengefasst werden konnte
+     */
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * beendet das Zusammenfassen im Hintergrund und wartet auf einen laufenden Durchlauf
+     */
+    @Override
+    public synchronized void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    /**
+     * Datenstrom, der nach jedem Schreiben so lange wartet, bis die Schreibrate wieder im Budget liegt
+     */
+    private static class ThrottledOutputStream extends FilterOutputStream {
+        private final long bytesPerSecond;
+        private final long start = System.nanoTime();
+        private long written;
+
+        ThrottledOutputStream(OutputStream out, long bytesPerSecond) {
+            super(out);
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            throttle(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            throttle(len);
+        }
+
+        private void throttle(int bytes) throws IOException {
+            written += bytes;
+            long earliest = written * 1_000_000_000L / bytesPerSecond;
+            long waitNanos = earliest - (System.nanoTime() - start);
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while compacting", e);
+                }
+            }
+        }
+    }
+}
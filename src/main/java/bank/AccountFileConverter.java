@@ -0,0 +1,71 @@
+package bank;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * wandelt Kontodateien zwischen den Formaten aus {@link AccountFormat} um, z.B. "Konto + 'name' + .json" in
+ * "Konto + 'name' + .bin". Die Zieldatei wird zuerst temporär geschrieben und dann atomar umbenannt.
+ */
+public class AccountFileConverter {
+
+    private AccountFileConverter() {
+    }
+
+    /**
+     * wandelt eine Kontodatei um. Die Formate ergeben sich aus den Dateiendungen.
+     *
+     * @param source die vorhandene Kontodatei
+     * @param target die zu schreibende Kontodatei
+     * @throws IOException if an input- or output-related problem occurs
+     */
+    public static void convert(Path source, Path target) throws IOException {
+        AccountFormat sourceFormat = formatOf(source);
+        AccountFormat targetFormat = formatOf(target);
+        List<Transaction> transactions = new ArrayList<>();
+        sourceFormat.read(source, transactions::add);
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            targetFormat.write(out, transactions);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * wandelt alle Kontodateien eines Ordners in das angegebene Format um und löscht danach die alten Dateien
+     *
+     * @param directory der Ordner der Bank
+     * @param format    das gewünschte Format
+     * @return die Anzahl der umgewandelten Dateien
+     * @throws IOException if an input- or output-related problem occurs
+     */
+    public static int convertDirectory(Path directory, AccountFormat format) throws IOException {
+        int converted = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "Konto *")) {
+            for (Path file : stream) {
+                String filename = file.getFileName().toString();
+                AccountFormat sourceFormat = AccountFormat.of(filename);
+                if (sourceFormat == null || sourceFormat == format || !Files.isRegularFile(file)) {
+                    continue;
+                }
+                String base = filename.substring(0, filename.length() - sourceFormat.getExtension().length());
+                convert(file, file.resolveSibling(base + format.getExtension()));
+                Files.delete(file);
+                converted++;
+            }
+        }
+        return converted;
+    }
+
+    private static AccountFormat formatOf(Path file) throws IOException {
+        AccountFormat format = AccountFormat.of(file.getFileName().toString());
+        if (format == null) {
+            throw new IOException("Unknown account file format: " + file);
+        }
+        return format;
+    }
+}
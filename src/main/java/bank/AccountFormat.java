@@ -0,0 +1,124 @@
+package bank;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Dateiformat, in dem eine PrivateBank den vollständigen Stand eines Kontos speichert
+ */
+public enum AccountFormat {
+    /**
+     * JSON-Array im Format des {@link TransactionJsonAdapter} in "Konto + 'name' + .json"
+     */
+    JSON(".json") {
+        @Override
+        public void write(OutputStream out, List<Transaction> transactions) throws IOException {
+            // Konten ohne Transaktionen werden wie bisher als leere Datei gespeichert
+            if (transactions.isEmpty()) {
+                return;
+            }
+            TransactionJsonAdapter adapter = new TransactionJsonAdapter();
+            JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+            writer.beginArray();
+            for (Transaction transaction : transactions) {
+                adapter.write(writer, transaction);
+            }
+            writer.endArray();
+            writer.flush();
+        }
+
+        @Override
+        public void read(Path file, Consumer<Transaction> consumer) throws IOException {
+            TransactionJsonAdapter adapter = new TransactionJsonAdapter();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                 JsonReader reader = new JsonReader(new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8)))) {
+                // leere Kontodateien entstehen beim Anlegen eines Kontos ohne Transaktionen
+                if (channel.size() == 0 || reader.peek() == JsonToken.NULL) {
+                    return;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    consumer.accept(adapter.read(reader));
+                }
+                reader.endArray();
+            }
+        }
+    },
+    /**
+     * kompaktes Binärformat des {@link BinaryTransactionCodec} in "Konto + 'name' + .bin"
+     */
+    BINARY(".bin") {
+        @Override
+        public void write(OutputStream out, List<Transaction> transactions) throws IOException {
+            new BinaryTransactionCodec().writeAll(out, transactions);
+        }
+
+        @Override
+        public void read(Path file, Consumer<Transaction> consumer) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() == 0) {
+                    return;
+                }
+                new BinaryTransactionCodec().readAll(Channels.newInputStream(channel), consumer);
+            }
+        }
+    };
+
+    private final String extension;
+
+    AccountFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Getter für extension
+     *
+     * @return die Dateiendung inklusive Punkt
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * schreibt alle Transaktionen eines Kontos in diesem Format
+     *
+     * @param out          das Ziel, wird nicht geschlossen
+     * @param transactions die Transaktionen
+     * @throws IOException if an output-related problem occurs
+     */
+    public abstract void write(OutputStream out, List<Transaction> transactions) throws IOException;
+
+    /**
+     * liest die Transaktionen einer Kontodatei einzeln, damit nie die ganze Datei gleichzeitig im Speicher liegt
+     *
+     * @param file     die Kontodatei
+     * @param consumer bekommt jede gelesene Transaktion
+     * @throws IOException if an input-related problem occurs
+     */
+    public abstract void read(Path file, Consumer<Transaction> consumer) throws IOException;
+
+    /**
+     * sucht das Format zu einem Dateinamen
+     *
+     * @param filename der Dateiname
+     * @return das Format oder null, wenn die Endung zu keinem Format passt
+     */
+    public static AccountFormat of(String filename) {
+        for (AccountFormat format : values()) {
+            if (filename.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
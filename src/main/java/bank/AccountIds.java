@@ -0,0 +1,138 @@
+package bank;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * vergibt den Konten einer PrivateBank fortlaufende Nummern. Die Bank übersetzt den Namen nur an ihrer Schnittstelle
+ * einmal in die Nummer und legt den Zustand der Konten in Arrays nach Nummer ab. Eine Nummer bleibt gleich, solange das
+ * Konto existiert. Nach dem Entfernen wird sie an das nächste neue Konto vergeben, sodass die Arrays nur so lang werden
+ * wie die größte Zahl gleichzeitig vorhandener Konten. Nicht threadsicher, die Bank hält ihre Sperre.
+ */
+public class AccountIds {
+
+    /**
+     * Ergebnis von {@link #find(String)} für einen unbekannten Namen
+     */
+    public static final int ABSENT = -1;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    /**
+     * die Namen nach Nummer, null für entfernte Konten
+     */
+    private String[] names = new String[16];
+    private int next;
+    /**
+     * die Nummern entfernter Konten, die wieder vergeben werden
+     */
+    private int[] free = new int[16];
+    private int freeCount;
+
+    /**
+     * gibt die Nummer eines Kontos zurück
+     *
+     * @param name Name des Kontos
+     * @return die Nummer oder {@link #ABSENT}
+     */
+    public int find(String name) {
+        Integer id = ids.get(name);
+        return id == null ? ABSENT : id;
+    }
+
+    /**
+     * gibt die Nummer eines Kontos zurück und vergibt eine, wenn das Konto noch keine hat. Frei gewordene Nummern
+     * werden zuerst vergeben.
+     *
+     * @param name Name des Kontos
+     * @return die Nummer
+     */
+    public int add(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (freeCount > 0) {
+            int reused = free[--freeCount];
+            names[reused] = name;
+            ids.put(name, reused);
+            return reused;
+        }
+        if (next == names.length) {
+            names = Arrays.copyOf(names, 2 * next);
+        }
+        names[next] = name;
+        ids.put(name, next);
+        return next++;
+    }
+
+    /**
+     * entfernt ein Konto, seine Nummer wird später wieder vergeben
+     *
+     * @param id die Nummer
+     */
+    public void remove(int id) {
+        if (names[id] == null) {
+            return;
+        }
+        ids.remove(names[id]);
+        names[id] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, 2 * freeCount);
+        }
+        free[freeCount++] = id;
+    }
+
+    /**
+     * gibt den Namen zu einer Nummer zurück
+     *
+     * @param id die Nummer
+     * @return der Name oder null, wenn das Konto entfernt wurde
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * gibt die Nummern aller Konten aufsteigend zurück
+     *
+     * @return die Nummern
+     */
+    public int[] ids() {
+        int[] result = new int[ids.size()];
+        int count = 0;
+        for (int id = 0; id < next; id++) {
+            if (names[id] != null) {
+                result[count++] = id;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * gibt die Nummern aller Konten nach Namen sortiert zurück
+     *
+     * @return die Nummern
+     */
+    public int[] idsByName() {
+        return Arrays.stream(ids()).boxed()
+                .sorted((a, b) -> names[a].compareTo(names[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * gibt die Namen aller Konten in der Reihenfolge ihrer Nummern zurück
+     *
+     * @return die Namen
+     */
+    public List<String> names() {
+        List<String> result = new ArrayList<>(ids.size());
+        for (int id : ids()) {
+            result.add(names[id]);
+        }
+        return result;
+    }
+}
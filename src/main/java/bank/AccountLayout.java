@@ -0,0 +1,16 @@
+package bank;
+
+/**
+ * legt fest, wie eine PrivateBank die Transaktionen eines geladenen Kontos im Speicher ablegt
+ */
+public enum AccountLayout {
+    /**
+     * jede Transaktion ist ein eigenes Objekt, mit Indizes für Duplikate, Sortierung und Zeiträume ({@link Account})
+     */
+    OBJECTS,
+    /**
+     * die Attribute aller Transaktionen liegen spaltenweise in Arrays, Texte als Nummern. Transaction-Objekte werden
+     * erst bei einer Abfrage erzeugt ({@link ColumnarAccount}). Braucht bei großen Konten deutlich weniger Speicher.
+     */
+    COLUMNS
+}
@@ -0,0 +1,290 @@
+package bank;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Protokoll der Änderungen eines Kontos. Jede Zeile ist ein Eintrag aus der CRC32C-Prüfsumme (8 Hex-Ziffern), einem
+ * Leerzeichen und einem JSON-Objekt mit der Operation ("OP") und der Transaktion im Format des
+ * {@link TransactionJsonAdapter} ("CLASSNAME" und "INSTANCE"). Hinzufügen schreibt einen "ADD"-Eintrag, Entfernen
+ * einen "REMOVE"-Eintrag (Grabstein), bestehende Zeilen werden nie überschrieben.
+ * <p>
+ * Stirbt das Programm während eines Anhängens, kann nur der letzte Eintrag unvollständig sein. Ein solcher
+ * abgerissener Eintrag wird beim Lesen und vor dem nächsten Anhängen abgeschnitten, alle Einträge davor bleiben
+ * erhalten. Ein beschädigter Eintrag mitten im Protokoll ist dagegen ein Fehler.
+ */
+public class AccountLog {
+
+    public static final String EXTENSION = ".log";
+    public static final String ADD = "ADD";
+    public static final String REMOVE = "REMOVE";
+    /**
+     * so viele Bytes werden beim Suchen des letzten Eintrags auf einmal vom Ende her gelesen
+     */
+    private static final int TAIL_BLOCK = 8192;
+
+    private final TransactionJsonAdapter adapter = new TransactionJsonAdapter();
+    /**
+     * Protokolle, deren Ende seit dem Start schon geprüft wurde
+     */
+    private final Set<Path> recovered = Collections.synchronizedSet(new HashSet<>());
+
+    /**
+     * ein gelesener Eintrag
+     *
+     * @param operation   {@link #ADD} oder {@link #REMOVE}
+     * @param transaction die betroffene Transaktion
+     */
+    private record Entry(String operation, Transaction transaction) {
+    }
+
+    /**
+     * hängt einen Eintrag an das Protokoll an und legt die Datei an, falls sie noch nicht existiert. Beim ersten
+     * Anhängen an ein Protokoll wird vorher ein abgerissener letzter Eintrag abgeschnitten.
+     *
+     * @param file        die Protokolldatei
+     * @param operation   {@link #ADD} oder {@link #REMOVE}
+     * @param transaction die betroffene Transaktion
+     * @throws IOException if an output-related problem occurs
+     */
+    public void append(Path file, String operation, Transaction transaction) throws IOException {
+        if (!recovered.contains(file)) {
+            recover(file);
+        }
+        Files.writeString(file, encode(operation, transaction) + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * hängt mehrere Einträge mit derselben Operation in einem einzigen Schreibvorgang an das Protokoll an
+     *
+     * @param file         die Protokolldatei
+     * @param operation    {@link #ADD} oder {@link #REMOVE}
+     * @param transactions die betroffenen Transaktionen
+     * @throws IOException if an output-related problem occurs
+     */
+    public void append(Path file, String operation, Collection<Transaction> transactions) throws IOException {
+        if (!recovered.contains(file)) {
+            recover(file);
+        }
+        StringBuilder records = new StringBuilder();
+        for (Transaction transaction : transactions) {
+            records.append(encode(operation, transaction)).append('\n');
+        }
+        Files.writeString(file, records, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * wandelt einen Eintrag in eine Protokollzeile mit Prüfsumme, aber ohne Zeilenumbruch um
+     *
+     * @param operation   {@link #ADD} oder {@link #REMOVE}
+     * @param transaction die betroffene Transaktion
+     * @return die Zeile
+     */
+    public String encode(String operation, Transaction transaction) {
+        StringWriter line = new StringWriter();
+        try (JsonWriter out = new JsonWriter(line)) {
+            out.beginObject();
+            out.name("OP").value(operation);
+            adapter.writeFields(out, transaction);
+            out.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String json = line.toString();
+        return String.format("%08x", checksum(json.getBytes(StandardCharsets.UTF_8))) + " " + json;
+    }
+
+    /**
+     * spielt alle Einträge des Protokolls der Reihe nach auf die Transaktionen eines Kontos ein. Einträge, die schon
+     * angewendet sind, ändern nichts, deshalb darf ein Protokoll auch mehrfach eingespielt werden. Ein abgerissener
+     * letzter Eintrag wird abgeschnitten.
+     *
+     * @param file         die Protokolldatei
+     * @param transactions die Transaktionen des Kontos, die verändert werden
+     * @param prepare      wird für jede gelesene Transaktion vor dem Vergleich aufgerufen, z.B. um Zinsen zu setzen
+     * @throws IOException if an input-related problem occurs or a record before the last one is damaged
+     */
+    public void replay(Path file, TransactionStore transactions, Consumer<Transaction> prepare) throws IOException {
+        long tornAt = -1;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            long offset = 0;
+            int b = in.read();
+            while (b >= 0) {
+                long start = offset;
+                record.reset();
+                while (b >= 0 && b != '\n') {
+                    record.write(b);
+                    b = in.read();
+                    offset++;
+                }
+                boolean complete = b == '\n';
+                if (complete) {
+                    b = in.read();
+                    offset++;
+                }
+                boolean last = b < 0;
+                String line = record.toString(StandardCharsets.UTF_8);
+                if (line.isBlank()) {
+                    continue;
+                }
+                Entry entry = complete ? decode(line) : null;
+                if (entry == null) {
+                    if (last) {
+                        tornAt = start;
+                        break;
+                    }
+                    throw new IOException("Damaged log record at offset " + start + " in " + file);
+                }
+                Transaction transaction = entry.transaction();
+                prepare.accept(transaction);
+                if (ADD.equals(entry.operation())) {
+                    transactions.add(transaction);
+                } else {
+                    transactions.remove(transaction);
+                }
+            }
+        }
+        if (tornAt >= 0) {
+            truncate(file, tornAt);
+        }
+        recovered.add(file);
+    }
+
+    /**
+     * prüft nur den letzten Eintrag des Protokolls und schneidet ihn ab, wenn er abgerissen oder beschädigt ist. Die
+     * Dauer hängt nur von der Länge des letzten Eintrags ab, nicht von der Größe des Protokolls.
+     *
+     * @param file die Protokolldatei
+     * @return true, wenn etwas abgeschnitten wurde
+     * @throws IOException if an input- or output-related problem occurs
+     */
+    public boolean recover(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            recovered.add(file);
+            return false;
+        }
+        long recordStart;
+        boolean valid;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                recovered.add(file);
+                return false;
+            }
+            boolean complete = lineStart(channel, size) == size;
+            long end = complete ? size - 1 : size;
+            recordStart = lineStart(channel, end);
+            ByteBuffer record = ByteBuffer.allocate((int) (end - recordStart));
+            channel.read(record, recordStart);
+            String line = new String(record.array(), StandardCharsets.UTF_8);
+            valid = complete && (line.isBlank() || decode(line) != null);
+        }
+        if (!valid) {
+            truncate(file, recordStart);
+        }
+        recovered.add(file);
+        return !valid;
+    }
+
+    /**
+     * prüft und liest eine Protokollzeile
+     *
+     * @param line die Zeile ohne Zeilenumbruch
+     * @return der Eintrag oder null, wenn die Prüfsumme nicht stimmt oder die Zeile unvollständig ist
+     */
+    private Entry decode(String line) {
+        int space = line.indexOf(' ');
+        if (space != 8) {
+            return null;
+        }
+        String json = line.substring(space + 1);
+        try {
+            if (Long.parseLong(line.substring(0, space), 16) != checksum(json.getBytes(StandardCharsets.UTF_8))) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String operation = null;
+        String className = null;
+        Transaction transaction = null;
+        try {
+            JsonReader in = new JsonReader(new StringReader(json));
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "OP" -> operation = in.nextString();
+                    case "CLASSNAME" -> className = in.nextString();
+                    case "INSTANCE" -> transaction = adapter.readInstance(in, className);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+        if (transaction == null || !(ADD.equals(operation) || REMOVE.equals(operation))) {
+            return null;
+        }
+        return new Entry(operation, transaction);
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * sucht rückwärts in Blöcken den Anfang der Zeile, die vor einer Position endet
+     *
+     * @param channel das Protokoll
+     * @param end     die Position hinter dem letzten Zeichen der Zeile
+     * @return die Position hinter dem vorherigen Zeilenumbruch oder 0
+     * @throws IOException if an input-related problem occurs
+     */
+    private static long lineStart(FileChannel channel, long end) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(TAIL_BLOCK);
+        long blockEnd = end;
+        while (blockEnd > 0) {
+            long blockStart = Math.max(0, blockEnd - TAIL_BLOCK);
+            block.clear().limit((int) (blockEnd - blockStart));
+            while (block.hasRemaining()) {
+                if (channel.read(block, blockStart + block.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = block.position() - 1; i >= 0; i--) {
+                if (block.get(i) == '\n') {
+                    return blockStart + i + 1;
+                }
+            }
+            blockEnd = blockStart;
+        }
+        return 0;
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            channel.force(true);
+        }
+    }
+}
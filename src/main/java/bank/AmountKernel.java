@@ -0,0 +1,56 @@
+package bank;
+
+/**
+ * rechnet über ganze Spalten von Beträgen, z.B. für {@link ColumnarAccount}. Die Ergebnisse sind immer genau
+ * dieselben wie einzeln mit {@link Payment#calculateMinor()} und exakter Summe in Tausendsteln. Mit dem Maven-Profil
+ * "vector" gibt es eine Implementierung mit der Vector API (jdk.incubator.vector), die mehrere Beträge je Befehl
+ * rechnet. Sie wird benutzt, wenn sie mitkompiliert ist und die JVM mit
+ * {@code --add-modules jdk.incubator.vector} läuft, sonst wird einfach in einer Schleife gerechnet.
+ */
+public interface AmountKernel {
+
+    /**
+     * Summen über eine Spalte in Tausendsteln
+     *
+     * @param sum           Summe aller Beträge
+     * @param positiveSum   Summe der Beträge größer 0
+     * @param negativeSum   Summe der Beträge kleiner 0
+     * @param positiveCount Anzahl der Beträge größer 0
+     * @param negativeCount Anzahl der Beträge kleiner 0
+     */
+    record Totals(long sum, long positiveSum, long negativeSum, int positiveCount, int negativeCount) {
+    }
+
+    /**
+     * berechnet Beträge nach Zinsen in Tausendsteln wie {@link Payment#calculateMinor()}
+     *
+     * @param amounts          die Beträge
+     * @param from             erste Stelle, einschließlich
+     * @param to               letzte Stelle, ausschließlich
+     * @param incomingInterest eingehende Zinsen
+     * @param outgoingInterest ausgehende Zinsen
+     * @param result           bekommt an denselben Stellen die berechneten Beträge
+     * @throws ArithmeticException wie {@link Money#of(double)}
+     */
+    void calculateMinor(double[] amounts, int from, int to, double incomingInterest, double outgoingInterest,
+                        long[] result);
+
+    /**
+     * summiert Beträge in Tausendsteln, gesamt und getrennt nach Vorzeichen
+     *
+     * @param minor die Beträge in Tausendsteln
+     * @param from  erste Stelle, einschließlich
+     * @param to    letzte Stelle, ausschließlich
+     * @return die Summen
+     */
+    Totals totals(long[] minor, int from, int to);
+
+    /**
+     * gibt die schnellste verfügbare Implementierung zurück
+     *
+     * @return die Vector-API-Implementierung oder die einfache Schleife
+     */
+    static AmountKernel get() {
+        return AmountKernelHolder.PREFERRED;
+    }
+}
@@ -0,0 +1,23 @@
+package bank;
+
+/**
+ * bestimmt einmal beim ersten Aufruf von {@link AmountKernel#get()}, welche Implementierung benutzt wird
+ */
+final class AmountKernelHolder {
+
+    static final AmountKernel PREFERRED = preferred();
+
+    private AmountKernelHolder() {
+    }
+
+    /**
+     * lädt die Vector-API-Implementierung, wenn sie mitkompiliert ist und das Modul geladen werden kann
+     */
+    private static AmountKernel preferred() {
+        try {
+            return (AmountKernel) Class.forName("bank.VectorAmountKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarAmountKernel();
+        }
+    }
+}
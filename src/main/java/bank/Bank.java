@@ -3,7 +3,9 @@ package bank;
 import bank.exceptions.*;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface for a generic bank. Provides multiple methods to handle the interaction between
@@ -44,6 +46,70 @@ public interface Bank {
     void addTransaction(String account, Transaction transaction)
             throws TransactionAlreadyExistException, AccountDoesNotExistException, TransactionAttributeException, IOException;
 
+    /**
+     * Adds many transactions to an already existing account at once, e.g. for a statement import.
+     * All transactions are validated before any of them is added. Transactions that already exist in the
+     * account or occur more than once in the batch are skipped.
+     *
+     * @param account      the account to which the transactions are added
+     * @param transactions the transactions which should be added to the specified account
+     * @return the number of transactions that were actually added
+     * @throws AccountDoesNotExistException  if the specified account does not exist
+     * @throws TransactionAttributeException if the validation check for certain attributes fail
+     */
+    default int addTransactions(String account, Collection<Transaction> transactions)
+            throws AccountDoesNotExistException, TransactionAttributeException, IOException {
+        if (!getAllAccounts().contains(account)) {
+            throw new AccountDoesNotExistException("Account does not exist: " + account);
+        }
+        for (Transaction transaction : transactions) {
+            if (!transaction.isValid()) {
+                throw new TransactionAttributeException("Invalid transaction attributes.");
+            }
+        }
+        int added = 0;
+        for (Transaction transaction : transactions) {
+            if (!containsTransaction(account, transaction)) {
+                try {
+                    addTransaction(account, transaction);
+                    added++;
+                } catch (TransactionAlreadyExistException e) {
+                    // duplicates are skipped
+                }
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Adds transactions to several already existing accounts at once, see {@link #addTransactions(String, Collection)}.
+     * All accounts and transactions are validated before anything is added.
+     *
+     * @param transactionsByAccount the transactions per account
+     * @return the number of transactions that were actually added
+     * @throws AccountDoesNotExistException  if one of the accounts does not exist
+     * @throws TransactionAttributeException if the validation check for certain attributes fail
+     */
+    default int addTransactions(Map<String, ? extends Collection<Transaction>> transactionsByAccount)
+            throws AccountDoesNotExistException, TransactionAttributeException, IOException {
+        List<String> accounts = getAllAccounts();
+        for (Map.Entry<String, ? extends Collection<Transaction>> entry : transactionsByAccount.entrySet()) {
+            if (!accounts.contains(entry.getKey())) {
+                throw new AccountDoesNotExistException("Account does not exist: " + entry.getKey());
+            }
+            for (Transaction transaction : entry.getValue()) {
+                if (!transaction.isValid()) {
+                    throw new TransactionAttributeException("Invalid transaction attributes.");
+                }
+            }
+        }
+        int added = 0;
+        for (Map.Entry<String, ? extends Collection<Transaction>> entry : transactionsByAccount.entrySet()) {
+            added += addTransactions(entry.getKey(), entry.getValue());
+        }
+        return added;
+    }
+
     /**
      * Removes a transaction from an account. If the transaction does not exist, an exception is
      * thrown.
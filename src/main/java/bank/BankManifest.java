@@ -0,0 +1,122 @@
+package bank;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Verzeichnis aller Konten einer Bank in der Datei "bank.manifest" im Speicherort. Für jedes Konto stehen dort die
+ * Dateien mit Größe und Änderungszeit, die Anzahl der Transaktionen, der Kontostand und eine Prüfsumme. Eine Bank
+ * kann damit beim Öffnen alle Konten und Kontostände kennen, ohne eine einzige Kontodatei zu lesen. Ein Eintrag gilt
+ * nur, solange Größe und Änderungszeit seiner Dateien unverändert sind.
+ *
+ * @param version          Version des Formats
+ * @param incomingInterest eingehende Zinsen, mit denen die Kontostände berechnet wurden
+ * @param outgoingInterest ausgehende Zinsen, mit denen die Kontostände berechnet wurden
+ * @param accounts         ein Eintrag je Konto
+ */
+public record BankManifest(int version, double incomingInterest, double outgoingInterest, List<Entry> accounts) {
+
+    public static final String FILENAME = "bank.manifest";
+    public static final int VERSION = 1;
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    /**
+     * eine Datei eines Kontos
+     *
+     * @param file         Dateiname ohne Ordner, z.B. "Konto Adam.json"
+     * @param size         Größe der Datei in Bytes
+     * @param lastModified Zeitpunkt der letzten Änderung in Millisekunden
+     */
+    public record FileEntry(String file, long size, long lastModified) {
+    }
+
+    /**
+     * Eintrag eines Kontos
+     *
+     * @param account  Name des Kontos
+     * @param files    die Dateien des Kontos
+     * @param records  Anzahl der Transaktionen
+     * @param balance  Kontostand
+     * @param checksum CRC32 über den Inhalt aller Dateien, nach Dateinamen sortiert
+     */
+    public record Entry(String account, List<FileEntry> files, int records, double balance, long checksum) {
+    }
+
+    /**
+     * liest das Verzeichnis eines Speicherorts
+     *
+     * @param directory der Speicherort
+     * @return das Verzeichnis oder null, wenn es keines gibt
+     * @throws IOException if an input-related problem occurs or the file is not a manifest of this version
+     */
+    public static BankManifest read(Path directory) throws IOException {
+        Path file = directory.resolve(FILENAME);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        BankManifest manifest;
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            manifest = GSON.fromJson(in, BankManifest.class);
+        } catch (JsonParseException e) {
+            throw new IOException("Invalid manifest " + file + ": " + e.getMessage(), e);
+        }
+        if (manifest == null || manifest.version() != VERSION || manifest.accounts() == null) {
+            throw new IOException("Unsupported manifest " + file);
+        }
+        return manifest;
+    }
+
+    /**
+     * schreibt das Verzeichnis zuerst temporär und ersetzt dann die alte Datei atomar
+     *
+     * @param directory der Speicherort
+     * @throws IOException if an output-related problem occurs
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(FILENAME);
+        Path temp = directory.resolve(FILENAME + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            GSON.toJson(this, out);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * berechnet die Prüfsumme über den Inhalt mehrerer Dateien, nach Dateinamen sortiert
+     *
+     * @param files die Dateien eines Kontos
+     * @return CRC32 über alle Bytes
+     * @throws IOException if an input-related problem occurs
+     */
+    public static long checksum(List<Path> files) throws IOException {
+        List<Path> sorted = new ArrayList<>(files);
+        sorted.sort(Comparator.comparing(file -> file.getFileName().toString()));
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        for (Path file : sorted) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    crc.update(buffer);
+                    buffer.clear();
+                }
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,195 @@
+package bank;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * kompaktes Binärformat für Transaktionen. Eine Datei beginnt mit der Kennung "OOSB" und einem Versionsbyte, danach
+ * folgen die Transaktionen ohne Trennzeichen bis zum Dateiende. Jede Transaktion besteht aus
+ * <ul>
+ *     <li>einem Typbyte (1 Payment, 2 Transfer, 3 IncomingTransfer, 4 OutgoingTransfer)</li>
+ *     <li>date, amount (8 Byte) und description</li>
+ *     <li>bei Payments incomingInterest und outgoingInterest (je 8 Byte)</li>
+ *     <li>bei Transfers sender und recipient</li>
+ * </ul>
+ * Zahlen werden big-endian mit fester Breite geschrieben. Strings beginnen mit einer Zahl (4 Byte): -1 für null,
+ * sonst die Länge gefolgt von den UTF-8-Bytes. Ab Version 2 bekommt jeder String beim ersten Vorkommen in der Datei
+ * die nächste Nummer ab 0, jedes weitere Vorkommen wird nur noch als -(Nummer + 2) geschrieben. Wiederkehrende
+ * Beschreibungen und Namen stehen dadurch nur einmal in der Datei und werden beim Lesen nur einmal erzeugt. Dateien
+ * der Version 1 ohne Verweise werden weiter gelesen.
+ */
+public class BinaryTransactionCodec {
+
+    public static final int MAGIC = 0x4F4F5342; // "OOSB"
+    public static final byte VERSION = 2;
+
+    private static final byte PAYMENT = 1;
+    private static final byte TRANSFER = 2;
+    private static final byte INCOMING_TRANSFER = 3;
+    private static final byte OUTGOING_TRANSFER = 4;
+
+    /**
+     * schreibt Kennung, Version und alle Transaktionen
+     *
+     * @param out          das Ziel, wird nicht geschlossen
+     * @param transactions die Transaktionen
+     * @throws IOException if an output-related problem occurs
+     */
+    public void writeAll(OutputStream out, List<Transaction> transactions) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        Map<String, Integer> written = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            write(data, transaction, written);
+        }
+        data.flush();
+    }
+
+    /**
+     * liest Kennung und Version und gibt danach jede Transaktion einzeln weiter, sobald sie gelesen ist
+     *
+     * @param in       die Quelle, wird nicht geschlossen
+     * @param consumer bekommt jede gelesene Transaktion
+     * @throws IOException if an input-related problem occurs or the data is no valid account file
+     */
+    public void readAll(InputStream in, Consumer<Transaction> consumer) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a binary account file");
+        }
+        byte version = data.readByte();
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported binary account file version: " + version);
+        }
+        List<String> strings = version == 1 ? null : new ArrayList<>();
+        int tag;
+        while ((tag = data.read()) != -1) {
+            consumer.accept(read(data, (byte) tag, strings));
+        }
+    }
+
+    /**
+     * schreibt eine einzelne Transaktion, alle Strings vollständig ohne Verweise
+     *
+     * @param out         das Ziel
+     * @param transaction die Transaktion
+     * @throws IOException if an output-related problem occurs
+     */
+    public void write(DataOutput out, Transaction transaction) throws IOException {
+        write(out, transaction, null);
+    }
+
+    /**
+     * liest eine einzelne Transaktion ohne Verweise auf frühere Strings, deren Typbyte schon gelesen wurde
+     *
+     * @param in  die Quelle
+     * @param tag das Typbyte
+     * @return die gelesene Transaktion
+     * @throws IOException if an input-related problem occurs or the record refers to an earlier string
+     */
+    public Transaction read(DataInput in, byte tag) throws IOException {
+        return read(in, tag, null);
+    }
+
+    /**
+     * @param written die schon geschriebenen Strings mit ihrer Nummer oder null, um keine Verweise zu schreiben
+     */
+    private void write(DataOutput out, Transaction transaction, Map<String, Integer> written) throws IOException {
+        out.writeByte(tagOf(transaction));
+        writeString(out, transaction.date, written);
+        out.writeDouble(transaction.amount);
+        writeString(out, transaction.description, written);
+        if (transaction instanceof Payment payment) {
+            out.writeDouble(payment.getIncomingInterest());
+            out.writeDouble(payment.getOutgoingInterest());
+        } else if (transaction instanceof Transfer transfer) {
+            writeString(out, transfer.getSender(), written);
+            writeString(out, transfer.getRecipient(), written);
+        }
+    }
+
+    /**
+     * @param strings die schon gelesenen Strings nach Nummer oder null, wenn es keine Verweise geben darf
+     */
+    private Transaction read(DataInput in, byte tag, List<String> strings) throws IOException {
+        Transaction transaction = switch (tag) {
+            case PAYMENT -> new Payment();
+            case TRANSFER -> new Transfer();
+            case INCOMING_TRANSFER -> new IncomingTransfer();
+            case OUTGOING_TRANSFER -> new OutgoingTransfer();
+            default -> throw new IOException("Unknown transaction type: " + tag);
+        };
+        transaction.date = readString(in, strings);
+        transaction.amount = in.readDouble();
+        transaction.description = readString(in, strings);
+        if (transaction instanceof Payment payment) {
+            try {
+                payment.setIncomingInterest(in.readDouble());
+                payment.setOutgoingInterest(in.readDouble());
+            } catch (IllegalStateException e) {
+                throw new IOException("Invalid interest in binary account file", e);
+            }
+        } else if (transaction instanceof Transfer transfer) {
+            transfer.setSender(readString(in, strings));
+            transfer.setRecipient(readString(in, strings));
+        }
+        return transaction;
+    }
+
+    private static byte tagOf(Transaction transaction) {
+        if (transaction instanceof Payment) {
+            return PAYMENT;
+        } else if (transaction instanceof IncomingTransfer) {
+            return INCOMING_TRANSFER;
+        } else if (transaction instanceof OutgoingTransfer) {
+            return OUTGOING_TRANSFER;
+        } else if (transaction instanceof Transfer) {
+            return TRANSFER;
+        }
+        throw new IllegalArgumentException("Unsupported transaction type: " + transaction.getClass().getName());
+    }
+
+    private static void writeString(DataOutput out, String value, Map<String, Integer> written) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        Integer id = written == null ? null : written.get(value);
+        if (id != null) {
+            out.writeInt(-id - 2);
+            return;
+        }
+        if (written != null) {
+            written.put(value, written.size());
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in, List<String> strings) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        } else if (length < 0) {
+            int id = -length - 2;
+            if (strings == null || id >= strings.size()) {
+                throw new IOException("Invalid string reference in binary account file: " + id);
+            }
+            return strings.get(id);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        if (strings != null) {
+            strings.add(value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,739 @@
+package bank;
+
+import java.util.*;
+
+/**
+ * die Transaktionen eines Kontos spaltenweise in Arrays: Art, Betrag, berechneter Betrag in Tausendsteln und Datum in
+ * Sekunden, Beschreibungen und Namen als Nummern aus einem {@link StringDictionary}, das sich mehrere Konten teilen
+ * können. Die Datumstexte haben dagegen ein eigenes Verzeichnis je Konto: fast jeder Tag ist ein neuer Text, im
+ * gemeinsamen Verzeichnis, das nie schrumpft, würden sie sich über alle Konten und die ganze Laufzeit ansammeln. Das
+ * Verzeichnis des Kontos wird beim Aufräumen der entfernten Zeilen neu aufgebaut und hält so höchstens die Daten der
+ * vorhandenen und der seitdem entfernten Zeilen. Die
+ * Zinsen der Payments stehen nur einmal in einer kleinen Tabelle, jede Zeile verweist darauf. Mit einer
+ * {@link RateTable} gibt es nur einen Eintrag, den der Bank, und nach dessen Änderung werden die berechneten Beträge
+ * bei der nächsten Abfrage neu berechnet. Transaction-Objekte werden erst bei einer Abfrage erzeugt und nicht
+ * aufgehoben. Kontostand, Filter und Sortierungen laufen über die Arrays, neue Zinsen und Summen über ganze Spalten
+ * mit dem {@link AmountKernel}.
+ * <p>
+ * Entfernte Zeilen werden nur markiert und erst beim nächsten Anwachsen gemeinsam entfernt, die Einfügereihenfolge
+ * bleibt dabei erhalten. Duplikate nach {@link Transaction#equals(Object)} werden über eine Hashtabelle aus
+ * Zeilennummern erkannt, die nur Nummern und Beträge vergleicht.
+ */
+public class ColumnarAccount implements TransactionStore {
+
+    private static final byte REMOVED = -1;
+    private static final byte PAYMENT = 0;
+    private static final byte TRANSFER = 1;
+    private static final byte INCOMING = 2;
+    private static final byte OUTGOING = 3;
+    /**
+     * Nummer für einen fehlenden Text (null) bzw. für keine Zinsen
+     */
+    private static final int NONE = StringDictionary.NULL;
+    /**
+     * Nummer für einen Text, der noch nicht vorkommt
+     */
+    private static final int MISSING = StringDictionary.ABSENT;
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * belegte Zeilen einschließlich der entfernten
+     */
+    private int rows;
+    private int live;
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private double[] amounts = new double[INITIAL_CAPACITY];
+    private long[] minor = new long[INITIAL_CAPACITY];
+    /**
+     * der berechnete Betrag ungerundet wie {@link Transaction#calculate()}, nach ihm wird sortiert
+     */
+    private double[] values = new double[INITIAL_CAPACITY];
+    private long[] seconds = new long[INITIAL_CAPACITY];
+    private int[] dates = new int[INITIAL_CAPACITY];
+    private int[] descriptions = new int[INITIAL_CAPACITY];
+    private int[] senders = new int[INITIAL_CAPACITY];
+    private int[] recipients = new int[INITIAL_CAPACITY];
+    private int[] rates = new int[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    /**
+     * Zeilennummer + 1 je Platz, 0 für frei. Doppelt so groß wie die Spalten, damit höchstens die Hälfte belegt ist.
+     */
+    private int[] slots = new int[2 * INITIAL_CAPACITY];
+
+    private final StringDictionary dictionary;
+    /**
+     * die Datumstexte dieses Kontos, siehe Klassenbeschreibung
+     */
+    private StringDictionary dateDictionary = new StringDictionary();
+    private double[] incomingRates = new double[1];
+    private double[] outgoingRates = new double[1];
+    private int rateCount;
+    /**
+     * die Zinstabelle der Bank oder null, wenn jedes Payment seine eigenen Zinsen hat
+     */
+    private final RateTable rateTable;
+    /**
+     * die Version der Zinstabelle, mit der die Spalte minor berechnet ist
+     */
+    private long rateVersion;
+
+    private long sum;
+    private long positiveSum;
+    private long negativeSum;
+    private int positiveCount;
+    private int negativeCount;
+    /**
+     * Zeilen nach berechnetem Betrag bzw. nach Datum sortiert, jeweils bei Gleichheit in Einfügereihenfolge. In
+     * prefix steht die Summe der Beträge bis einschließlich der Zeile aus byDate. null nach jeder Änderung.
+     */
+    private int[] byAmount;
+    private int[] byDate;
+    private long[] dateKeys;
+    private long[] prefix;
+
+    /**
+     * Konstruktor für ein leeres Konto mit eigenem Verzeichnis für die Texte
+     */
+    public ColumnarAccount() {
+        this(new StringDictionary());
+    }
+
+    /**
+     * Konstruktor für ein leeres Konto
+     *
+     * @param dictionary das Verzeichnis für die Texte, z.B. das gemeinsame einer Bank
+     */
+    public ColumnarAccount(StringDictionary dictionary) {
+        this(dictionary, null);
+    }
+
+    /**
+     * Konstruktor für ein leeres Konto, dessen Payments mit den Zinsen der Tabelle berechnet werden
+     *
+     * @param dictionary das Verzeichnis für die Texte, z.B. das gemeinsame einer Bank
+     * @param rateTable  die Zinstabelle, z.B. die einer Bank, oder null
+     */
+    public ColumnarAccount(StringDictionary dictionary, RateTable rateTable) {
+        this.dictionary = dictionary;
+        this.rateTable = rateTable;
+        if (rateTable != null) {
+            RateTable.Rates rates = rateTable.get();
+            rateVersion = rates.version();
+            rateId(rates.incomingInterest(), rates.outgoingInterest());
+        }
+    }
+
+    /**
+     * Konstruktor, übernimmt die Transaktionen ohne Duplikate
+     *
+     * @param transactions die Transaktionen in ihrer Reihenfolge
+     */
+    public ColumnarAccount(Collection<Transaction> transactions) {
+        this();
+        for (Transaction transaction : transactions) {
+            add(transaction);
+        }
+    }
+
+    @Override
+    public boolean contains(Transaction transaction) {
+        return find(transaction) >= 0;
+    }
+
+    /**
+     * fügt eine Transaktion am Ende hinzu. Unterstützt werden Payment, Transfer, IncomingTransfer und
+     * OutgoingTransfer.
+     *
+     * @param transaction die Transaktion
+     * @return false, wenn eine gleiche Transaktion schon existiert
+     * @throws IllegalArgumentException bei einer anderen Art von Transaktion
+     */
+    @Override
+    public boolean add(Transaction transaction) {
+        byte kind = kindOf(transaction);
+        if (kind == REMOVED) {
+            throw new IllegalArgumentException("Unsupported transaction type: " + transaction.getClass().getName());
+        }
+        if (find(transaction) >= 0) {
+            return false;
+        }
+        refresh();
+        if (rows == kinds.length) {
+            grow();
+        }
+        int row = rows++;
+        kinds[row] = kind;
+        amounts[row] = transaction.getAmount();
+        minor[row] = rateTable != null && kind == PAYMENT
+                ? Payment.calculateMinor(amounts[row], incomingRates[0], outgoingRates[0])
+                : transaction.calculateMinor();
+        seconds[row] = transaction.getEpochSecond();
+        dates[row] = dateDictionary.intern(transaction.getDate());
+        descriptions[row] = intern(transaction.getDescription());
+        if (transaction instanceof Payment payment) {
+            senders[row] = NONE;
+            recipients[row] = NONE;
+            rates[row] = rateTable != null ? 0 : rateId(payment.getIncomingInterest(), payment.getOutgoingInterest());
+        } else {
+            Transfer transfer = (Transfer) transaction;
+            senders[row] = intern(transfer.getSender());
+            recipients[row] = intern(transfer.getRecipient());
+            rates[row] = NONE;
+        }
+        values[row] = calculate(row);
+        hashes[row] = hashOf(row);
+        insertSlot(row);
+        live++;
+        count(row, 1);
+        changed();
+        return true;
+    }
+
+    @Override
+    public boolean remove(Transaction transaction) {
+        int row = find(transaction);
+        if (row < 0) {
+            return false;
+        }
+        refresh();
+        count(row, -1);
+        kinds[row] = REMOVED;
+        // entfernte Zeilen dürfen in den Summen über die ganze Spalte nicht mitzählen
+        minor[row] = 0;
+        values[row] = 0;
+        live--;
+        changed();
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return live;
+    }
+
+    @Override
+    public List<Transaction> asList() {
+        List<Transaction> list = new ArrayList<>(live);
+        for (int row = 0; row < rows; row++) {
+            if (kinds[row] != REMOVED) {
+                list.add(materialize(row));
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * berechnet die Beträge der Payments mit dem {@link AmountKernel} neu, wenn sich die Zinstabelle seit der letzten
+     * Berechnung geändert hat. Die Beträge der Payments werden dafür in ein zusammenhängendes Array gesammelt, damit
+     * Überweisungen und entfernte Zeilen nicht mitgerechnet werden.
+     */
+    private void refresh() {
+        if (rateTable == null || rateTable.getVersion() == rateVersion) {
+            return;
+        }
+        RateTable.Rates rates = rateTable.get();
+        rateVersion = rates.version();
+        incomingRates[0] = rates.incomingInterest();
+        outgoingRates[0] = rates.outgoingInterest();
+        int[] payments = new int[rows];
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            if (kinds[row] == PAYMENT) {
+                payments[count++] = row;
+            }
+        }
+        double[] paymentAmounts = new double[count];
+        for (int i = 0; i < count; i++) {
+            paymentAmounts[i] = amounts[payments[i]];
+        }
+        long[] calculated = new long[count];
+        AmountKernel.get().calculateMinor(paymentAmounts, 0, count, rates.incomingInterest(),
+                rates.outgoingInterest(), calculated);
+        for (int i = 0; i < count; i++) {
+            minor[payments[i]] = calculated[i];
+            values[payments[i]] = calculate(payments[i]);
+        }
+        total();
+    }
+
+    @Override
+    public long balanceMinor() {
+        refresh();
+        return sum;
+    }
+
+    @Override
+    public List<Transaction> sorted(boolean asc) {
+        refresh();
+        int[] order = amountOrder();
+        List<Transaction> list = new ArrayList<>(order.length);
+        if (asc) {
+            for (int row : order) {
+                list.add(materialize(row));
+            }
+        } else {
+            // gleiche Beträge bleiben auch absteigend in Einfügereihenfolge
+            int end = order.length;
+            while (end > 0) {
+                int start = end - 1;
+                while (start > 0 && Double.compare(values[order[start - 1]], values[order[end - 1]]) == 0) {
+                    start--;
+                }
+                for (int i = start; i < end; i++) {
+                    list.add(materialize(order[i]));
+                }
+                end = start;
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public List<Transaction> byType(boolean positive) {
+        refresh();
+        List<Transaction> list = new ArrayList<>(countByType(positive));
+        for (int row = 0; row < rows; row++) {
+            if (kinds[row] != REMOVED && (positive ? values[row] > 0 : values[row] < 0)) {
+                list.add(materialize(row));
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public int countByType(boolean positive) {
+        refresh();
+        return positive ? positiveCount : negativeCount;
+    }
+
+    @Override
+    public long sumByTypeMinor(boolean positive) {
+        refresh();
+        return positive ? positiveSum : negativeSum;
+    }
+
+    /**
+     * gibt die k betragsmäßig größten Gutschriften (positive) bzw. Belastungen (negative) zurück. Es werden nur die k
+     * zurückgegebenen Transaktionen erzeugt.
+     *
+     * @param k        wie viele Transaktionen höchstens zurückgegeben werden
+     * @param positive true für Gutschriften, false für Belastungen
+     * @return die Transaktionen
+     */
+    @Override
+    public List<Transaction> top(int k, boolean positive) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        refresh();
+        List<Transaction> top = new ArrayList<>(Math.min(k, countByType(positive)));
+        if (k == 0) {
+            return top;
+        }
+        int[] order = amountOrder();
+        if (!positive) {
+            for (int i = 0; i < order.length && top.size() < k && values[order[i]] < 0; i++) {
+                top.add(materialize(order[i]));
+            }
+            return top;
+        }
+        int end = order.length;
+        while (end > 0 && top.size() < k && values[order[end - 1]] > 0) {
+            int start = end - 1;
+            while (start > 0 && Double.compare(values[order[start - 1]], values[order[end - 1]]) == 0) {
+                start--;
+            }
+            for (int i = start; i < end && top.size() < k; i++) {
+                top.add(materialize(order[i]));
+            }
+            end = start;
+        }
+        return top;
+    }
+
+    @Override
+    public List<Transaction> between(long from, long to) {
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        List<Transaction> result = new ArrayList<>();
+        dateOrder();
+        for (int i = lowerBound(dateKeys, from), end = lowerBound(dateKeys, to); i < end; i++) {
+            result.add(materialize(byDate[i]));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public long balanceAsOfMinor(long second) {
+        refresh();
+        dateOrder();
+        int last = second == Long.MAX_VALUE ? dateKeys.length - 1 : lowerBound(dateKeys, second + 1) - 1;
+        return last < 0 ? 0 : prefix[last];
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this)
+            return true;
+
+        if (!(obj instanceof TransactionStore store))
+            return false;
+
+        return asList().equals(store.asList());
+    }
+
+    @Override
+    public int hashCode() {
+        return asList().hashCode();
+    }
+
+    /**
+     * sucht die Zeile einer gleichen Transaktion
+     *
+     * @param transaction die Transaktion
+     * @return die Zeile oder -1
+     */
+    private int find(Transaction transaction) {
+        byte kind = kindOf(transaction);
+        if (kind == REMOVED) {
+            return -1;
+        }
+        int date = dateDictionary.find(transaction.getDate());
+        int description = idOf(transaction.getDescription());
+        int sender = NONE;
+        int recipient = NONE;
+        if (transaction instanceof Transfer transfer) {
+            sender = idOf(transfer.getSender());
+            recipient = idOf(transfer.getRecipient());
+        }
+        if (date == MISSING || description == MISSING || sender == MISSING || recipient == MISSING) {
+            return -1;
+        }
+        return find(family(kind), transaction.getAmount(), date, description, sender, recipient);
+    }
+
+    private int find(int family, double amount, int date, int description, int sender, int recipient) {
+        int hash = hash(family, amount, date, description, sender, recipient);
+        int mask = slots.length - 1;
+        for (int i = hash & mask; slots[i] != 0; i = (i + 1) & mask) {
+            int row = slots[i] - 1;
+            // wie Transaction.equals: Beträge mit ==, Texte über ihre Nummern, Zinsen zählen nicht
+            if (kinds[row] != REMOVED && hashes[row] == hash && family(kinds[row]) == family
+                    && amounts[row] == amount && dates[row] == date && descriptions[row] == description
+                    && senders[row] == sender && recipients[row] == recipient) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private void insertSlot(int row) {
+        int mask = slots.length - 1;
+        int i = hashes[row] & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = row + 1;
+    }
+
+    private int hashOf(int row) {
+        return hash(family(kinds[row]), amounts[row], dates[row], descriptions[row], senders[row], recipients[row]);
+    }
+
+    private static int hash(int family, double amount, int date, int description, int sender, int recipient) {
+        // 0.0 und -0.0 sind nach == gleich und brauchen deshalb denselben Hash
+        int hash = family;
+        hash = 31 * hash + Double.hashCode(amount == 0 ? 0.0 : amount);
+        hash = 31 * hash + date;
+        hash = 31 * hash + description;
+        hash = 31 * hash + sender;
+        hash = 31 * hash + recipient;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Payments sind nur Payments gleich, Überweisungen aller Arten untereinander
+     */
+    private static int family(byte kind) {
+        return kind == PAYMENT ? PAYMENT : TRANSFER;
+    }
+
+    private static byte kindOf(Transaction transaction) {
+        if (transaction instanceof Payment) {
+            return PAYMENT;
+        } else if (transaction instanceof OutgoingTransfer) {
+            return OUTGOING;
+        } else if (transaction instanceof IncomingTransfer) {
+            return INCOMING;
+        } else if (transaction instanceof Transfer) {
+            return TRANSFER;
+        }
+        return REMOVED;
+    }
+
+    private Transaction materialize(int row) {
+        String date = dateDictionary.get(dates[row]);
+        String description = text(descriptions[row]);
+        return switch (kinds[row]) {
+            case PAYMENT -> payment(date, amounts[row], description, rates[row]);
+            case INCOMING -> new IncomingTransfer(date, amounts[row], description, text(senders[row]),
+                    text(recipients[row]));
+            case OUTGOING -> new OutgoingTransfer(date, amounts[row], description, text(senders[row]),
+                    text(recipients[row]));
+            default -> new Transfer(date, amounts[row], description, text(senders[row]), text(recipients[row]));
+        };
+    }
+
+    /**
+     * berechnet den Betrag einer Zeile wie {@link Transaction#calculate()}
+     */
+    private double calculate(int row) {
+        return switch (kinds[row]) {
+            case PAYMENT -> Payment.calculate(amounts[row], incomingRates[rates[row]], outgoingRates[rates[row]]);
+            case OUTGOING -> -Money.round(amounts[row]);
+            default -> Money.round(amounts[row]);
+        };
+    }
+
+    private Payment payment(String date, double amount, String description, int rate) {
+        Payment payment = new Payment(date, amount, description, incomingRates[rate], outgoingRates[rate]);
+        if (rateTable != null) {
+            payment.useRates(rateTable);
+        }
+        return payment;
+    }
+
+    private int intern(String text) {
+        return dictionary.intern(text);
+    }
+
+    private int idOf(String text) {
+        return dictionary.find(text);
+    }
+
+    private String text(int id) {
+        return dictionary.get(id);
+    }
+
+    /**
+     * sucht ein Zinspaar in der Tabelle, verglichen wie mit Double.equals, und fügt es hinzu, wenn es fehlt
+     *
+     * @return die Nummer
+     */
+    private int rateId(double incomingInterest, double outgoingInterest) {
+        for (int id = 0; id < rateCount; id++) {
+            if (Double.compare(incomingRates[id], incomingInterest) == 0
+                    && Double.compare(outgoingRates[id], outgoingInterest) == 0) {
+                return id;
+            }
+        }
+        if (rateCount == incomingRates.length) {
+            incomingRates = Arrays.copyOf(incomingRates, 2 * rateCount);
+            outgoingRates = Arrays.copyOf(outgoingRates, 2 * rateCount);
+        }
+        incomingRates[rateCount] = incomingInterest;
+        outgoingRates[rateCount] = outgoingInterest;
+        return rateCount++;
+    }
+
+    /**
+     * zählt eine Zeile zu den Summen hinzu oder zieht sie ab. Die Seite bestimmt wie bisher das Vorzeichen von
+     * {@link Transaction#calculate()}, gerundet hat der Betrag dasselbe Vorzeichen oder ist 0.
+     *
+     * @param sign 1 oder -1
+     */
+    private void count(int row, int sign) {
+        long amount = minor[row];
+        sum += sign * amount;
+        if (values[row] > 0) {
+            positiveSum += sign * amount;
+            positiveCount += sign;
+        } else if (values[row] < 0) {
+            negativeSum += sign * amount;
+            negativeCount += sign;
+        }
+    }
+
+    private void changed() {
+        byAmount = null;
+        byDate = null;
+        dateKeys = null;
+        prefix = null;
+    }
+
+    /**
+     * schafft Platz für eine weitere Zeile: sind mindestens die Hälfte der Zeilen entfernt, werden sie aufgeräumt,
+     * sonst werden alle Spalten verdoppelt
+     */
+    private void grow() {
+        if (live > rows / 2) {
+            int capacity = 2 * kinds.length;
+            kinds = Arrays.copyOf(kinds, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            minor = Arrays.copyOf(minor, capacity);
+            values = Arrays.copyOf(values, capacity);
+            seconds = Arrays.copyOf(seconds, capacity);
+            dates = Arrays.copyOf(dates, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            senders = Arrays.copyOf(senders, capacity);
+            recipients = Arrays.copyOf(recipients, capacity);
+            rates = Arrays.copyOf(rates, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            slots = new int[2 * capacity];
+        }
+        rehash();
+    }
+
+    /**
+     * entfernt die markierten Zeilen, berechnet Hashes und Summen neu und baut die Hashtabelle und das Verzeichnis
+     * der Datumstexte neu auf. Dabei gefundene Duplikate werden ebenfalls entfernt.
+     */
+    private void rehash() {
+        Arrays.fill(slots, 0);
+        StringDictionary liveDates = new StringDictionary();
+        int kept = 0;
+        for (int row = 0; row < rows; row++) {
+            if (kinds[row] == REMOVED) {
+                continue;
+            }
+            int date = liveDates.intern(dateDictionary.get(dates[row]));
+            if (find(family(kinds[row]), amounts[row], date, descriptions[row], senders[row], recipients[row]) >= 0) {
+                continue;
+            }
+            kinds[kept] = kinds[row];
+            amounts[kept] = amounts[row];
+            minor[kept] = minor[row];
+            values[kept] = values[row];
+            seconds[kept] = seconds[row];
+            dates[kept] = date;
+            descriptions[kept] = descriptions[row];
+            senders[kept] = senders[row];
+            recipients[kept] = recipients[row];
+            rates[kept] = rates[row];
+            hashes[kept] = hashOf(kept);
+            insertSlot(kept);
+            kept++;
+        }
+        rows = kept;
+        live = kept;
+        dateDictionary = liveDates;
+        total();
+    }
+
+    /**
+     * berechnet Summen und Anzahlen nach Vorzeichen neu. Die Summen kommen aus der Spalte minor, die Anzahlen aus der
+     * Spalte values, weil ein Betrag unter einem halben Tausendstel gerundet 0 ist, aber trotzdem zu seiner Seite
+     * gehört.
+     */
+    private void total() {
+        AmountKernel.Totals totals = AmountKernel.get().totals(minor, 0, rows);
+        sum = totals.sum();
+        positiveSum = totals.positiveSum();
+        negativeSum = totals.negativeSum();
+        positiveCount = 0;
+        negativeCount = 0;
+        for (int row = 0; row < rows; row++) {
+            if (values[row] > 0) {
+                positiveCount++;
+            } else if (values[row] < 0) {
+                negativeCount++;
+            }
+        }
+        changed();
+    }
+
+    private int[] amountOrder() {
+        if (byAmount == null) {
+            byAmount = liveRows(false);
+            // als long mit derselben Ordnung wie Double.compare, -0.0 vor 0.0
+            long[] keys = new long[rows];
+            for (int row : byAmount) {
+                long bits = Double.doubleToLongBits(values[row]);
+                keys[row] = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+            }
+            sort(byAmount, keys);
+        }
+        return byAmount;
+    }
+
+    private void dateOrder() {
+        if (byDate != null) {
+            return;
+        }
+        byDate = liveRows(true);
+        sort(byDate, seconds);
+        dateKeys = new long[byDate.length];
+        prefix = new long[byDate.length];
+        long running = 0;
+        for (int i = 0; i < byDate.length; i++) {
+            running += minor[byDate[i]];
+            dateKeys[i] = seconds[byDate[i]];
+            prefix[i] = running;
+        }
+    }
+
+    /**
+     * @param dated true, um Zeilen mit unbekanntem Datumsformat auszulassen
+     * @return die Nummern der nicht entfernten Zeilen aufsteigend
+     */
+    private int[] liveRows(boolean dated) {
+        int[] order = new int[live];
+        int n = 0;
+        for (int row = 0; row < rows; row++) {
+            if (kinds[row] != REMOVED && (!dated || seconds[row] != TransactionDate.UNKNOWN)) {
+                order[n++] = row;
+            }
+        }
+        return n == order.length ? order : Arrays.copyOf(order, n);
+    }
+
+    /**
+     * sortiert Zeilennummern stabil nach einem Schlüssel (Mergesort von unten nach oben)
+     *
+     * @param order die Zeilennummern, danach sortiert
+     * @param keys  der Schlüssel je Zeile
+     */
+    private static void sort(int[] order, long[] keys) {
+        int[] source = order;
+        int[] target = new int[order.length];
+        for (int width = 1; width < order.length; width *= 2) {
+            for (int start = 0; start < order.length; start += 2 * width) {
+                int middle = Math.min(start + width, order.length);
+                int end = Math.min(start + 2 * width, order.length);
+                int left = start;
+                int right = middle;
+                for (int i = start; i < end; i++) {
+                    if (left < middle && (right >= end || keys[source[left]] <= keys[source[right]])) {
+                        target[i] = source[left++];
+                    } else {
+                        target[i] = source[right++];
+                    }
+                }
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != order) {
+            System.arraycopy(source, 0, order, 0, order.length);
+        }
+    }
+
+    /**
+     * @return die erste Stelle mit einem Wert größer oder gleich key
+     */
+    private static int lowerBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
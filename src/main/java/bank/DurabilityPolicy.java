@@ -0,0 +1,27 @@
+package bank;
+
+/**
+ * legt fest, wann eine PrivateBank geschriebene Kontodateien mit fsync auf die Platte bringt. Gemeinsame fsyncs für
+ * die Dateien selbst gibt es nur bei {@link StorageMode#LOG}. Bei {@link StorageMode#SNAPSHOT} wird jede neu
+ * geschriebene Kontodatei vor dem Umbenennen sofort synchronisiert, gesammelt wird dort nur der fsync des
+ * Verzeichnisses.
+ */
+public enum DurabilityPolicy {
+    /**
+     * es wird nie synchronisiert, das Betriebssystem entscheidet, wann die Daten auf der Platte landen
+     */
+    NONE,
+    /**
+     * alle geänderten Dateien werden in einem festen Abstand gemeinsam synchronisiert
+     */
+    PERIODIC,
+    /**
+     * die erste Änderung öffnet ein kurzes Zeitfenster, alle Änderungen darin werden mit einem gemeinsamen fsync
+     * synchronisiert
+     */
+    GROUP_COMMIT,
+    /**
+     * jede Änderung wird sofort synchronisiert, bevor der Aufruf zurückkehrt
+     */
+    ALWAYS
+}
@@ -0,0 +1,374 @@
+package bank;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * bringt geschriebene Dateien nach einer {@link DurabilityPolicy} mit fsync auf die Platte. Geänderte Dateien werden
+ * gesammelt und bei {@link DurabilityPolicy#PERIODIC} und {@link DurabilityPolicy#GROUP_COMMIT} in einem eigenen
+ * Hintergrund-Thread gemeinsam synchronisiert, sodass viele Schreibvorgänge nur einen fsync je Datei kosten. Wer
+ * wissen will, wann seine Änderungen sicher sind, wartet auf {@link #whenDurable()}.
+ * <p>
+ * Wird eine Datei angelegt oder durch Umbenennen ersetzt, wird zusätzlich ihr Verzeichnis synchronisiert, sonst kann
+ * der neue Eintrag nach einem Absturz fehlen. Die zuletzt synchronisierten Dateien bleiben geöffnet, damit nicht jeder
+ * fsync die Datei neu öffnen muss. Beim Ersetzen über {@link #replace(Path, Path)} muss der neue Inhalt vor dem
+ * Umbenennen auf der Platte sein, dort wird nur der fsync des Verzeichnisses gesammelt.
+ */
+public class FileSyncer implements Closeable {
+
+    /**
+     * so viele Dateien bleiben höchstens zwischen zwei fsyncs geöffnet
+     */
+    private static final int OPEN_CHANNELS = 32;
+
+    private final DurabilityPolicy policy;
+    private final long intervalMillis;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Dateien, die seit dem letzten fsync geschrieben wurden
+     */
+    private Set<Path> dirty = new LinkedHashSet<>();
+    /**
+     * Verzeichnisse, in denen seit dem letzten fsync Dateien angelegt oder ersetzt wurden
+     */
+    private Set<Path> dirtyDirectories = new LinkedHashSet<>();
+    /**
+     * wird abgeschlossen, sobald die Dateien in dirty und dirtyDirectories synchronisiert sind
+     */
+    private CompletableFuture<Void> pending = new CompletableFuture<>();
+    /**
+     * der gerade laufende fsync oder null
+     */
+    private CompletableFuture<Void> inFlight;
+    private boolean scheduled;
+    private boolean closed;
+    private long syncCount;
+    /**
+     * geöffnete Dateien, die am längsten nicht synchronisierte zuerst
+     */
+    private final Map<Path, FileChannel> channels = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, FileChannel> eldest) {
+            if (size() > OPEN_CHANNELS) {
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Konstruktor
+     *
+     * @param policy         wann synchronisiert wird
+     * @param intervalMillis Abstand bei {@link DurabilityPolicy#PERIODIC} bzw. Länge des Zeitfensters bei
+     *                       {@link DurabilityPolicy#GROUP_COMMIT} in Millisekunden
+     */
+    public FileSyncer(DurabilityPolicy policy, long intervalMillis) {
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("Interval must not be negative");
+        }
+        this.policy = policy;
+        this.intervalMillis = intervalMillis;
+        if (policy == DurabilityPolicy.PERIODIC || policy == DurabilityPolicy.GROUP_COMMIT) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "account-syncer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (policy == DurabilityPolicy.PERIODIC) {
+                executor.scheduleWithFixedDelay(this::sync, intervalMillis, Math.max(1, intervalMillis),
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Getter für policy
+     *
+     * @return wann synchronisiert wird
+     */
+    public DurabilityPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * meldet eine geschriebene Datei. Bei {@link DurabilityPolicy#ALWAYS} und nach {@link #close()} wird sie sofort
+     * synchronisiert.
+     *
+     * @param file die geschriebene Datei
+     * @throws IOException if the file could not be synchronized
+     */
+    public void written(Path file) throws IOException {
+        mark(file, null);
+    }
+
+    /**
+     * meldet eine neu angelegte Datei. Synchronisiert werden die Datei und ihr Verzeichnis.
+     *
+     * @param file die angelegte Datei
+     * @throws IOException if the file or its directory could not be synchronized
+     */
+    public void created(Path file) throws IOException {
+        mark(file, file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * ersetzt eine Datei atomar durch eine fertig geschriebene temporäre Datei. Außer bei {@link DurabilityPolicy#NONE}
+     * wird die temporäre Datei vorher sofort synchronisiert, sonst könnte nach einem Absturz eine leere Datei den alten
+     * Stand ersetzen. Nur der fsync des Verzeichnisses folgt danach der {@link DurabilityPolicy}.
+     *
+     * @param temp die temporäre Datei mit dem neuen Inhalt
+     * @param file die zu ersetzende Datei
+     * @throws IOException if the temporary file could not be synchronized or moved
+     */
+    public void replace(Path temp, Path file) throws IOException {
+        if (policy != DurabilityPolicy.NONE) {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            synchronized (this) {
+                syncCount++;
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        replaced(file);
+    }
+
+    /**
+     * meldet eine Datei, die durch Umbenennen einer schon synchronisierten temporären Datei ersetzt wurde. Synchronisiert
+     * wird nur noch ihr Verzeichnis, eine für den alten Stand geöffnete Datei wird geschlossen.
+     *
+     * @param file die ersetzte Datei
+     * @throws IOException if the directory could not be synchronized
+     */
+    public void replaced(Path file) throws IOException {
+        deleted(file);
+        mark(null, file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * meldet eine gelöschte oder schon synchronisiert ersetzte Datei, damit ihr alter Kanal nicht länger geöffnet
+     * bleibt
+     *
+     * @param file die gelöschte Datei
+     */
+    public synchronized void deleted(Path file) {
+        FileChannel old = channels.remove(file);
+        if (old != null) {
+            closeQuietly(old);
+        }
+    }
+
+    /**
+     * synchronisiert eine Datei und gegebenenfalls ihr Verzeichnis sofort oder merkt beide für den nächsten Durchlauf
+     * vor
+     *
+     * @param file      die Datei oder null, wenn ihr Inhalt schon synchronisiert ist
+     * @param directory ihr Verzeichnis oder null, wenn sich kein Verzeichniseintrag geändert hat
+     */
+    private void mark(Path file, Path directory) throws IOException {
+        if (policy == DurabilityPolicy.NONE) {
+            return;
+        }
+        boolean now;
+        synchronized (this) {
+            now = policy == DurabilityPolicy.ALWAYS || closed;
+            if (!now) {
+                if (file != null) {
+                    dirty.add(file);
+                }
+                if (directory != null) {
+                    dirtyDirectories.add(directory);
+                }
+                if (policy == DurabilityPolicy.GROUP_COMMIT && !scheduled) {
+                    scheduled = true;
+                    executor.schedule(this::sync, intervalMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+        if (now) {
+            if (file != null) {
+                force(file);
+            }
+            if (directory != null) {
+                forceDirectory(directory);
+            }
+            synchronized (this) {
+                syncCount++;
+            }
+        }
+    }
+
+    /**
+     * gibt ein Future zurück, das abgeschlossen wird, sobald alle bis jetzt gemeldeten Dateien synchronisiert sind.
+     * Bei {@link DurabilityPolicy#NONE} ist es sofort abgeschlossen, ohne dass synchronisiert wird.
+     *
+     * @return das Future, schlägt fehl, wenn der fsync fehlgeschlagen ist
+     */
+    public synchronized CompletableFuture<Void> whenDurable() {
+        if (!dirty.isEmpty() || !dirtyDirectories.isEmpty()) {
+            return pending;
+        }
+        if (inFlight != null) {
+            return inFlight;
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * synchronisiert sofort alle gemeldeten Dateien mit einem fsync je Datei, danach ihre Verzeichnisse, und schließt
+     * die wartenden Futures ab
+     */
+    public void sync() {
+        Set<Path> files;
+        Set<Path> directories;
+        CompletableFuture<Void> batch;
+        synchronized (this) {
+            scheduled = false;
+            if (dirty.isEmpty() && dirtyDirectories.isEmpty()) {
+                return;
+            }
+            files = dirty;
+            directories = dirtyDirectories;
+            batch = pending;
+            dirty = new LinkedHashSet<>();
+            dirtyDirectories = new LinkedHashSet<>();
+            pending = new CompletableFuture<>();
+            inFlight = batch;
+        }
+        List<IOException> failures = new ArrayList<>();
+        for (Path file : files) {
+            try {
+                force(file);
+            } catch (IOException e) {
+                failures.add(e);
+            }
+        }
+        for (Path directory : directories) {
+            try {
+                forceDirectory(directory);
+            } catch (IOException e) {
+                failures.add(e);
+            }
+        }
+        synchronized (this) {
+            syncCount++;
+            if (inFlight == batch) {
+                inFlight = null;
+            }
+        }
+        if (failures.isEmpty()) {
+            batch.complete(null);
+        } else {
+            batch.completeExceptionally(failures.get(0));
+        }
+    }
+
+    /**
+     * gibt an, wie oft bisher synchronisiert wurde. Bei gemeinsamen fsyncs zählt ein Durchlauf einmal.
+     *
+     * @return die Anzahl der fsync-Durchläufe
+     */
+    public synchronized long getSyncCount() {
+        return syncCount;
+    }
+
+    /**
+     * synchronisiert alle noch offenen Dateien, beendet den Hintergrund-Thread und schließt die geöffneten Dateien.
+     * Danach gemeldete Dateien werden sofort synchronisiert.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = executor;
+            executor = null;
+            closed = true;
+        }
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sync();
+        synchronized (this) {
+            channels.values().forEach(FileSyncer::closeQuietly);
+            channels.clear();
+        }
+    }
+
+    /**
+     * synchronisiert eine Datei über ihren geöffneten Kanal und öffnet sie nur, wenn sie noch nicht offen ist. Nach
+     * {@link #close()} bleibt keine Datei mehr geöffnet.
+     */
+    private void force(Path file) throws IOException {
+        try {
+            FileChannel channel;
+            synchronized (this) {
+                channel = channels.get(file);
+                if (channel == null && !closed) {
+                    channel = FileChannel.open(file, StandardOpenOption.WRITE);
+                    channels.put(file, channel);
+                }
+            }
+            if (channel != null) {
+                try {
+                    channel.force(true);
+                    return;
+                } catch (ClosedChannelException e) {
+                    // inzwischen verdrängt oder ersetzt, einmal ohne den gemeinsamen Kanal
+                }
+            }
+            try (FileChannel reopened = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                reopened.force(true);
+            }
+        } catch (NoSuchFileException e) {
+            // inzwischen ersetzt oder gelöscht, die neue Datei wird selbst gemeldet
+        }
+    }
+
+    /**
+     * synchronisiert ein Verzeichnis, damit angelegte, umbenannte oder gelöschte Einträge einen Absturz überstehen
+     *
+     * @param directory das Verzeichnis
+     * @throws IOException if an output-related problem occurs
+     */
+    static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // manche Systeme (z.B. Windows) können Verzeichnisse nicht öffnen, dort ist der Eintrag schon sicher
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nur zum Synchronisieren geöffnet, es gibt nichts zu verlieren
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package bank;
 
 public class IncomingTransfer extends Transfer {
+    /**
+     * default Konstruktor
+     */
+    public IncomingTransfer() {
+    }
+
     public IncomingTransfer(String date, double amount, String description, String sender, String recipient) {
         super(date, amount, description, sender, recipient);
     }
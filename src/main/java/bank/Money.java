@@ -0,0 +1,86 @@
+package bank;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Geldbeträge als Festkommazahl: ein long in Tausendsteln, also mit drei Nachkommastellen wie die bisherige Rundung
+ * über BigDecimal. Summen solcher Beträge sind exakt und hängen nicht von der Reihenfolge ab. Umgerechnet wird nur an
+ * der Schnittstelle zu double, ohne Objekte zu erzeugen. Nur Beträge ab etwa neun Billionen, deren Tausendstel als
+ * double nicht mehr ganzzahlig sind, werden wie bisher über BigDecimal gerundet.
+ */
+public final class Money {
+
+    /**
+     * Anzahl der Nachkommastellen
+     */
+    public static final int SCALE = 3;
+    /**
+     * so viele Tausendstel sind eine Einheit
+     */
+    public static final long UNIT = 1000;
+
+    /**
+     * ab diesem Betrag ist das Produkt mit {@link #UNIT} als double nicht mehr ganzzahlig darstellbar
+     */
+    private static final double MAX = (double) (1L << 53) / UNIT;
+
+    private Money() {
+    }
+
+    /**
+     * rundet einen Betrag auf Tausendstel, bei genau der Hälfte weg von der Null. Das Ergebnis ist dasselbe wie
+     * {@code new BigDecimal(value).setScale(3, RoundingMode.HALF_UP)}, weil mit {@link Math#fma} exakt gegen die
+     * Rundungsgrenzen verglichen wird.
+     *
+     * @param value der Betrag
+     * @return der Betrag in Tausendsteln
+     * @throws ArithmeticException wenn der Betrag keine Zahl ist oder seine Tausendstel nicht in ein long passen
+     */
+    public static long of(double value) {
+        double magnitude = Math.abs(value);
+        if (!(magnitude < MAX)) {
+            if (!Double.isFinite(value)) {
+                throw new ArithmeticException("Amount out of range: " + value);
+            }
+            return new BigDecimal(value).setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+        // magnitude * UNIT ist schon gerundet, deshalb wird die Untergrenze exakt nachkorrigiert
+        double floor = Math.floor(magnitude * UNIT);
+        if (Math.fma(magnitude, UNIT, -floor) < 0) {
+            floor -= 1;
+        } else if (Math.fma(magnitude, UNIT, -(floor + 1)) >= 0) {
+            floor += 1;
+        }
+        long minor = (long) floor;
+        if (Math.fma(magnitude, UNIT, -(floor + 0.5)) >= 0) {
+            minor++;
+        }
+        return value < 0 ? -minor : minor;
+    }
+
+    /**
+     * rundet einen Betrag auf drei Nachkommastellen wie {@code new BigDecimal(value).setScale(3, RoundingMode.HALF_UP)
+     * .doubleValue()}, für jeden endlichen Betrag und ohne BigDecimal, solange {@link #of(double)} ohne auskommt
+     *
+     * @param value der Betrag
+     * @return der gerundete Betrag
+     * @throws NumberFormatException wenn der Betrag keine Zahl oder unendlich ist, wie bei BigDecimal
+     */
+    public static double round(double value) {
+        if (Math.abs(value) < MAX) {
+            return toDouble(of(value));
+        }
+        return new BigDecimal(value).setScale(SCALE, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    /**
+     * wandelt Tausendstel in den nächstgelegenen double um
+     *
+     * @param minor der Betrag in Tausendsteln
+     * @return der Betrag
+     */
+    public static double toDouble(long minor) {
+        return minor / (double) UNIT;
+    }
+}
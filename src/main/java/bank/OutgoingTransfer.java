@@ -1,16 +1,33 @@
 package bank;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-
 public class OutgoingTransfer extends Transfer{
+    /**
+     * default Konstruktor
+     */
+    public OutgoingTransfer() {
+    }
+
     public OutgoingTransfer(String date, double amount, String description, String sender, String recipient) {
         super(date, amount, description, sender, recipient);
     }
 
+    /**
+     * ausgehende Überweisungen verringern den Kontostand
+     *
+     * @return den negativen Wert von amount
+     */
     @Override
-    public double calculate(){
-
+    public double calculate() {
         return -super.calculate();
     }
+
+    /**
+     * ausgehende Überweisungen verringern den Kontostand, siehe {@link #calculate()}
+     *
+     * @return den negativen Wert von amount in Tausendsteln
+     */
+    @Override
+    public long calculateMinor() {
+        return -super.calculateMinor();
+    }
 }
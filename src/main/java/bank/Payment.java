@@ -1,7 +1,5 @@
 package bank;
 
-import java.util.Objects;
-
 /**
  * Diese Klasse handelt die ein- und ausgehende Zahlungen
  * @author Alaeddin Bahrouni
@@ -16,6 +14,10 @@ public class Payment extends Transaction implements CalculateBill {
      * speichert die eingehenden Zinsen (Positiv und zwischen 0 und 1 für die Prozentzahl)
      */
     private double outgoingInterest;
+    /**
+     * die Zinstabelle der Bank, wenn das Payment zu einem Konto gehört. Dann gelten deren Zinsen statt der eigenen.
+     */
+    private transient RateTable rateTable;
 
     public Payment(String date, double amount, String description){
         super(date, amount, description);
@@ -47,7 +49,31 @@ public class Payment extends Transaction implements CalculateBill {
      * @param payment das Objekt, das wir kopieren möchten
      */
     public Payment(Payment payment) {
-        this(payment.date, payment.amount, payment.description, payment.incomingInterest, payment.outgoingInterest);
+        this(payment.date, payment.amount, payment.description, payment.getIncomingInterest(),
+                payment.getOutgoingInterest());
+        this.rateTable = payment.rateTable;
+    }
+
+    /**
+     * verknüpft das Payment mit der Zinstabelle einer Bank, danach gelten deren Zinsen
+     *
+     * @param rateTable die Zinstabelle
+     */
+    void useRates(RateTable rateTable) {
+        this.rateTable = rateTable;
+    }
+
+    /**
+     * übernimmt die aktuellen Zinsen der Tabelle als eigene und löst die Verknüpfung, z.B. bevor einzelne Zinsen
+     * gesetzt werden
+     */
+    private void detach() {
+        if (rateTable != null) {
+            RateTable.Rates rates = rateTable.get();
+            incomingInterest = rates.incomingInterest();
+            outgoingInterest = rates.outgoingInterest();
+            rateTable = null;
+        }
     }
 
 
@@ -57,16 +83,18 @@ public class Payment extends Transaction implements CalculateBill {
      * @return eingehende Zinsen als double
      */
     public double getIncomingInterest() {
-        return incomingInterest;
+        return rateTable != null ? rateTable.getIncomingInterest() : incomingInterest;
     }
 
     /**
      * speichert -1 in incomingInterest, wenn der Wert außer von [0:1] ist
-     * ansonsten speichert den Wert in incomingInterest
+     * ansonsten speichert den Wert in incomingInterest. Ein mit einer Zinstabelle verknüpftes Payment wird dabei
+     * gelöst.
      *
      * @param incomingInterest der Wert der eingehenden Zinsen. Muss zwischen 0 und 1 sein
      */
     public void setIncomingInterest(double incomingInterest) {
+        detach();
         if (incomingInterest >= 0 && incomingInterest <= 1) {
             this.incomingInterest = incomingInterest;
         } else {
@@ -81,17 +109,19 @@ public class Payment extends Transaction implements CalculateBill {
      * @return ausgehende Zinsen als double
      */
     public double getOutgoingInterest() {
-        return outgoingInterest;
+        return rateTable != null ? rateTable.getOutgoingInterest() : outgoingInterest;
     }
 
 
     /**
      * speichert -1 in outgoingInterest, wenn der Wert außer von [0:1] ist
-     * ansonsten speichert den Wert in outgoingInterest
+     * ansonsten speichert den Wert in outgoingInterest. Ein mit einer Zinstabelle verknüpftes Payment wird dabei
+     * gelöst.
      *
      * @param outgoingInterest der Wert der ausgehenden Zinsen. Muss zwischen 0 und 1 sein
      */
     public void setOutgoingInterest(double outgoingInterest) {
+        detach();
         if (outgoingInterest >= 0 && outgoingInterest <= 1) {
             this.outgoingInterest = outgoingInterest;
         } else {
@@ -106,7 +136,7 @@ public class Payment extends Transaction implements CalculateBill {
      */
     @Override
     public boolean isValid() {
-        return incomingInterest != -1 && outgoingInterest != -1;
+        return rateTable != null || (incomingInterest != -1 && outgoingInterest != -1);
     }
 
     /**
@@ -120,7 +150,7 @@ public class Payment extends Transaction implements CalculateBill {
             throw new IllegalStateException("Payment is invalid");
         }
 
-        return "Payment{Incoming interest: " + incomingInterest + ", Outgoing interest: " + outgoingInterest + super.toString();
+        return "Payment{Incoming interest: " + getIncomingInterest() + ", Outgoing interest: " + getOutgoingInterest() + super.toString();
     }
 
     /**
@@ -130,18 +160,46 @@ public class Payment extends Transaction implements CalculateBill {
      */
     @Override
     public double calculate() {
+        if (rateTable != null) {
+            RateTable.Rates rates = rateTable.get();
+            return calculate(amount, rates.incomingInterest(), rates.outgoingInterest());
+        }
+        return calculate(amount, incomingInterest, outgoingInterest);
+    }
+
+    /**
+     * berechnet einen Betrag nach den Zinsen wie {@link #calculate()}, ohne ein Payment zu brauchen
+     *
+     * @param amount           der Betrag
+     * @param incomingInterest eingehende Zinsen
+     * @param outgoingInterest ausgehende Zinsen
+     * @return der berechnete Betrag
+     */
+    static double calculate(double amount, double incomingInterest, double outgoingInterest) {
         if (amount >= 0) {
             return amount * (1.0 - incomingInterest);
-        } else if (amount < 0) {
-            return amount * (1.0 + outgoingInterest);
         } else {
-            return amount;
+            return amount * (1.0 + outgoingInterest);
         }
     }
 
+    /**
+     * berechnet einen Betrag nach den Zinsen in Tausendsteln wie {@link #calculateMinor()}, ohne ein Payment zu
+     * brauchen
+     *
+     * @param amount           der Betrag
+     * @param incomingInterest eingehende Zinsen
+     * @param outgoingInterest ausgehende Zinsen
+     * @return der berechnete Betrag in Tausendsteln
+     */
+    static long calculateMinor(double amount, double incomingInterest, double outgoingInterest) {
+        return Money.of(calculate(amount, incomingInterest, outgoingInterest));
+    }
+
 
     /**
-     * vergleicht beide Objekte
+     * vergleicht beide Objekte. Die Zinsen zählen nicht dazu, sie gehören zur Bank, sodass sich Gleichheit und Hash
+     * bei neuen Zinsen nicht ändern.
      * @param obj das Objekt zu vergleichen
      * @return true wenn gleich und false wenn nicht
      */
@@ -155,18 +213,11 @@ public class Payment extends Transaction implements CalculateBill {
             return false;  // obj must be of type Payment
         }
 
-        Payment payment = (Payment) obj; // Now safely cast obj to Payment
-
-        // Compare fields in the superclass first (Transaction)
-        boolean superEquals = super.equals(obj);
-
-        // Compare the specific fields in Payment class
-        return superEquals &&
-                Objects.equals(this.incomingInterest, payment.incomingInterest) &&
-                Objects.equals(this.outgoingInterest, payment.outgoingInterest);
+        // Compare fields in the superclass (Transaction)
+        return super.equals(obj);
     }
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), incomingInterest, outgoingInterest);
+        return super.hashCode();
     }
 }
\ No newline at end of file
@@ -1,37 +1,121 @@
 package bank;
 
 import bank.exceptions.*;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.reflect.TypeToken;
-
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.lang.reflect.Type;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.*;
-
-public class PrivateBank implements Bank {
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+public class PrivateBank implements Bank, Closeable {
     private String name;
-    private double incomingInterest;
-    private double outgoingInterest;
-    private Map<String, List<Transaction>> accountsToTransactions = new HashMap<>();
+    /**
+     * die Zinsen der Bank, auf die alle Payments der Konten verweisen
+     */
+    private final RateTable rateTable;
+    /**
+     * Nummern der Konten. Der Name wird nur an der Schnittstelle nachgeschlagen, der Zustand eines Kontos liegt in den
+     * folgenden Arrays unter seiner Nummer.
+     */
+    private final AccountIds accountIds = new AccountIds();
+    /**
+     * Transaktionen je Konto, null für ein Konto, das im Lazy-Modus noch nicht gelesen wurde
+     */
+    private TransactionStore[] accounts = new TransactionStore[16];
     private String directoryName = "Bank Directory";
+    /**
+     * merkt sich für jedes geladene Konto den Zustand seiner Dateien, damit nur geänderte Dateien neu gelesen werden
+     */
+    private Map<Path, FileStamp>[] accountFiles = newFileTable(16);
+    private StorageMode storageMode = StorageMode.SNAPSHOT;
+    private AccountFormat accountFormat = AccountFormat.JSON;
+    private AccountLayout accountLayout = AccountLayout.OBJECTS;
+    /**
+     * gemeinsames Verzeichnis der Beschreibungen und Namen aller Konten, damit jeder Text nur einmal im Speicher liegt
+     */
+    private final StringDictionary dictionary = new StringDictionary();
+    private final AccountLog accountLog = new AccountLog();
+    /**
+     * bringt geschriebene Kontodateien nach der eingestellten {@link DurabilityPolicy} auf die Platte
+     */
+    private FileSyncer fileSyncer = new FileSyncer(DurabilityPolicy.NONE, 0);
+
+    /**
+     * Dateiendungen, an denen Dateien eines Kontos erkannt werden
+     */
+    private static final List<String> ACCOUNT_EXTENSIONS =
+            List.of(AccountFormat.JSON.getExtension(), AccountFormat.BINARY.getExtension(), AccountLog.EXTENSION);
+    private static final String ACCOUNT_PREFIX = "Konto ";
+    /**
+     * im Cache-Modus ist der geladene Zustand maßgeblich und es werden nur gemeldete Änderungen nachgeladen
+     */
+    private boolean cacheEnabled;
+    /**
+     * im Lazy-Modus werden beim Lesen des Ordners nur die Kontonamen vermerkt (Wert null in accounts)
+     */
+    private boolean lazyLoading;
+    /**
+     * wie viele Kontodateien beim Laden höchstens gleichzeitig gelesen werden
+     */
+    private int loadParallelism = Runtime.getRuntime().availableProcessors();
+    private ForkJoinPool loaderPool;
+    /**
+     * wie viele Transaktionen beim Laden mit einer gleichen aus derselben Kontodatei zusammengefallen sind
+     */
+    private final AtomicLong mergedDuplicates = new AtomicLong();
+    /**
+     * der letzte Fehler, nach dem die Bank ohne die betroffene Datei oder Funktion weitergearbeitet hat
+     */
+    private volatile Exception lastFailure;
+    private WatchService watchService;
+    /**
+     * Einträge aus dem {@link BankManifest}, deren Kontostand gilt, solange sich die Dateien des Kontos nicht ändern
+     */
+    private BankManifest.Entry[] manifestEntries = new BankManifest.Entry[16];
+    /**
+     * die Version der {@link RateTable}, mit der die Kontostände in manifestEntries berechnet sind. Nach neuen Zinsen
+     * gelten die Einträge nicht mehr, ohne dass sie einzeln verworfen werden müssen.
+     */
+    private long manifestVersion;
+    /**
+     * true, solange die Bank aus dem {@link BankManifest} geöffnet ist und weder geändert noch mit
+     * {@link #verifyManifest()} geprüft wurde. Bis dahin gelten die Zeitstempel aus dem Verzeichnis und der Ordner
+     * wird nicht aufgelistet.
+     */
+    private boolean trustManifest;
+
+    /**
+     * Zustand einer Kontodatei beim letzten Lesen oder Schreiben
+     *
+     * @param lastModified Zeitpunkt der letzten Änderung in Millisekunden
+     * @param size         Größe der Datei in Bytes
+     */
+    private record FileStamp(long lastModified, long size) {
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<Path, FileStamp>[] newFileTable(int length) {
+        return (Map<Path, FileStamp>[]) new Map[length];
+    }
 
 
     /**
      * default konstruktor
      */
     public PrivateBank() {
+        this.rateTable = new RateTable(0, 0);
     }
 
     /**
-     * Konstruktor: nimmt alle Parametern außer von accountsToTransactions und fügt ein neues Hashmap hinzu
+     * Konstruktor: nimmt alle Parametern außer den Konten, die aus dem Speicherort gelesen werden
      *
      * @param name             name des Kontoinhabers
      * @param incomingInterest eingehende Zinsen zwischen 0 und 1
@@ -39,11 +123,30 @@ public class PrivateBank implements Bank {
      * @param directoryName    Pfad der Speicherort
      */
     public PrivateBank(String name, double incomingInterest, double outgoingInterest, String directoryName) {
+        this(name, incomingInterest, outgoingInterest, directoryName, false);
+    }
+
+    /**
+     * Konstruktor wie {@link #PrivateBank(String, double, double, String)}, der auf Wunsch beim Erstellen nur die
+     * Kontonamen liest. Die Transaktionen eines Kontos werden dann erst beim ersten Zugriff geladen. Gibt es im
+     * Speicherort ein {@link BankManifest}, wird nur dieses gelesen. Bis zur ersten Änderung oder bis
+     * {@link #verifyManifest()} wird der Ordner dann nicht mehr aufgelistet, Konten und Kontostände kommen aus dem
+     * Verzeichnis.
+     *
+     * @param name             name des Kontoinhabers
+     * @param incomingInterest eingehende Zinsen zwischen 0 und 1
+     * @param outgoingInterest ausgehende Zinsen zwischen 0 und 1
+     * @param directoryName    Pfad der Speicherort
+     * @param lazyLoading      true, um Konten erst beim ersten Zugriff zu laden
+     */
+    public PrivateBank(String name, double incomingInterest, double outgoingInterest, String directoryName, boolean lazyLoading) {
         this.name = name;
-        this.incomingInterest = incomingInterest;
-        this.outgoingInterest = outgoingInterest;
+        this.rateTable = new RateTable(incomingInterest, outgoingInterest);
         this.directoryName = directoryName;
-        readAccounts();
+        this.lazyLoading = lazyLoading;
+        if (!lazyLoading || !openManifest()) {
+            readAccounts();
+        }
     }
 
     /**
@@ -52,7 +155,8 @@ public class PrivateBank implements Bank {
      * @param privateBank das zu kopierende Objekt
      */
     public PrivateBank(PrivateBank privateBank) throws IOException {
-        this(privateBank.name, privateBank.incomingInterest, privateBank.outgoingInterest, privateBank.directoryName);
+        this(privateBank.name, privateBank.getIncomingInterest(), privateBank.getOutgoingInterest(), privateBank.directoryName,
+                privateBank.lazyLoading);
         this.readAccounts();
     }
 
@@ -80,20 +184,17 @@ public class PrivateBank implements Bank {
      * @return incomingInterest
      */
     public double getIncomingInterest() {
-        return incomingInterest;
+        return rateTable.getIncomingInterest();
     }
 
     /**
-     * setzt die eingehenden Zinsen
+     * setzt die eingehenden Zinsen. Es wird nur die {@link RateTable} geändert, die Konten berechnen ihre
+     * Kontostände bei der nächsten Abfrage neu.
      *
      * @param incomingInterest die zu setzenden Zinsen
      */
-    public void setIncomingInterest(double incomingInterest) throws IllegalArgumentException {
-        if (incomingInterest <= 1 && incomingInterest >= 0) {
-            this.incomingInterest = incomingInterest;
-        } else {
-            throw new IllegalArgumentException();
-        }
+    public synchronized void setIncomingInterest(double incomingInterest) throws IllegalArgumentException {
+        rateTable.setIncomingInterest(incomingInterest);
     }
 
     /**
@@ -102,20 +203,17 @@ public class PrivateBank implements Bank {
      * @return outgoingInterest
      */
     public double getOutgoingInterest() {
-        return outgoingInterest;
+        return rateTable.getOutgoingInterest();
     }
 
     /**
-     * setzt die ausgehenden Zinsen
+     * setzt die ausgehenden Zinsen. Es wird nur die {@link RateTable} geändert, die Konten berechnen ihre
+     * Kontostände bei der nächsten Abfrage neu.
      *
      * @param outgoingInterest die zu setzenden Zinsen
      */
-    public void setOutgoingInterest(double outgoingInterest) {
-        if (outgoingInterest <= 1 && outgoingInterest >= 0) {
-            this.outgoingInterest = outgoingInterest;
-        } else {
-            throw new IllegalArgumentException();
-        }
+    public synchronized void setOutgoingInterest(double outgoingInterest) {
+        rateTable.setOutgoingInterest(outgoingInterest);
     }
 
     /**
@@ -128,12 +226,317 @@ public class PrivateBank implements Bank {
     }
 
     /**
-     * setzt den Speicherortspfad
+     * setzt den Speicherortspfad. Die Konten des alten Speicherorts werden vergessen und beim nächsten Zugriff aus dem
+     * neuen gelesen.
      *
      * @param directoryName der Pfad
      */
-    public void setDirectoryName(String directoryName) {
+    public synchronized void setDirectoryName(String directoryName) {
         this.directoryName = directoryName;
+        trustManifest = false;
+        for (int id : accountIds.ids()) {
+            forget(id);
+        }
+        if (cacheEnabled) {
+            setCacheEnabled(false);
+            setCacheEnabled(true);
+        }
+    }
+
+    /**
+     * Getter für storageMode
+     *
+     * @return wie Änderungen an Konten gespeichert werden
+     */
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    /**
+     * legt fest, wie Änderungen an Konten gespeichert werden. Im Modus {@link StorageMode#LOG} hängt jede Änderung nur
+     * einen Eintrag an das Protokoll des Kontos an, statt die ganze Datei neu zu schreiben.
+     *
+     * @param storageMode der Speichermodus
+     */
+    public synchronized void setStorageMode(StorageMode storageMode) {
+        this.storageMode = storageMode;
+    }
+
+    /**
+     * Getter für accountFormat
+     *
+     * @return das Format, in dem Kontodateien geschrieben werden
+     */
+    public AccountFormat getAccountFormat() {
+        return accountFormat;
+    }
+
+    /**
+     * legt fest, in welchem Format Kontodateien geschrieben werden. Gelesen werden immer alle Formate, eine Datei im
+     * alten Format wird beim nächsten vollständigen Schreiben des Kontos ersetzt.
+     *
+     * @param accountFormat das Format
+     */
+    public synchronized void setAccountFormat(AccountFormat accountFormat) {
+        this.accountFormat = accountFormat;
+    }
+
+    /**
+     * Getter für die DurabilityPolicy
+     *
+     * @return wann geschriebene Kontodateien mit fsync synchronisiert werden
+     */
+    public DurabilityPolicy getDurabilityPolicy() {
+        return fileSyncer.getPolicy();
+    }
+
+    /**
+     * legt fest, wann geschriebene Kontodateien mit fsync auf die Platte gebracht werden. Bei
+     * {@link DurabilityPolicy#PERIODIC} und {@link DurabilityPolicy#GROUP_COMMIT} kehren Änderungen sofort zurück und
+     * werden im Hintergrund gemeinsam synchronisiert, mit {@link #whenDurable()} kann auf den fsync gewartet werden.
+     * Noch offene Dateien der bisherigen Einstellung werden vorher synchronisiert.
+     *
+     * @param policy         wann synchronisiert wird
+     * @param intervalMillis Abstand bei PERIODIC bzw. Länge des Zeitfensters bei GROUP_COMMIT in Millisekunden
+     */
+    public synchronized void setDurabilityPolicy(DurabilityPolicy policy, long intervalMillis) {
+        FileSyncer old = fileSyncer;
+        fileSyncer = new FileSyncer(policy, intervalMillis);
+        old.close();
+    }
+
+    /**
+     * synchronisiert alle noch offenen Dateien und gibt die Hintergrund-Threads der Bank frei. Die Bank bleibt danach
+     * benutzbar, Änderungen werden dann aber sofort synchronisiert und Dateiänderungen nicht mehr beobachtet.
+     */
+    @Override
+    public synchronized void close() {
+        fileSyncer.close();
+        closeWatchService();
+        shutdownLoaderPool();
+    }
+
+    /**
+     * gibt ein Future zurück, das abgeschlossen wird, sobald alle bis jetzt gespeicherten Änderungen synchronisiert
+     * sind. Änderungen mehrerer Threads im selben Zeitfenster teilen sich dabei einen fsync. Bei
+     * {@link DurabilityPolicy#NONE} ist es sofort abgeschlossen.
+     *
+     * @return das Future, schlägt fehl, wenn der fsync fehlgeschlagen ist
+     */
+    public synchronized CompletableFuture<Void> whenDurable() {
+        return fileSyncer.whenDurable();
+    }
+
+    /**
+     * gibt an, wie viele Transaktionen beim Laden verworfen wurden, weil dieselbe Kontodatei schon eine gleiche
+     * enthielt. Das kommt nur bei Dateien älterer Versionen vor, in denen sich Payments allein in den Zinsen
+     * unterscheiden konnten: mit den Zinsen der Bank sind sie gleich und bleiben nur einmal erhalten.
+     *
+     * @return die Anzahl seit dem Erzeugen der Bank
+     */
+    public long getMergedDuplicates() {
+        return mergedDuplicates.get();
+    }
+
+    /**
+     * gibt den letzten Fehler zurück, nach dem die Bank ohne Abbruch weitergearbeitet hat, z.B. wenn der Ordner im
+     * Cache-Modus nicht beobachtet werden kann und stattdessen bei jedem Aufruf aufgelistet wird oder das
+     * {@link BankManifest} nicht gelesen werden kann und die Kontodateien gelesen werden
+     *
+     * @return der Fehler oder null, wenn es bisher keinen gab
+     */
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Getter für accountLayout
+     *
+     * @return wie die Transaktionen geladener Konten im Speicher abgelegt sind
+     */
+    public AccountLayout getAccountLayout() {
+        return accountLayout;
+    }
+
+    /**
+     * legt fest, wie die Transaktionen geladener Konten im Speicher abgelegt sind. Schon geladene Konten werden
+     * umgewandelt, an den Dateien ändert sich nichts.
+     *
+     * @param accountLayout Objekte oder Spalten
+     */
+    public synchronized void setAccountLayout(AccountLayout accountLayout) {
+        this.accountLayout = Objects.requireNonNull(accountLayout);
+        for (int id : accountIds.ids()) {
+            if (accounts[id] != null) {
+                TransactionStore store = newStore();
+                for (Transaction transaction : accounts[id].asList()) {
+                    store.add(transaction);
+                }
+                accounts[id] = store;
+            }
+        }
+    }
+
+    /**
+     * erstellt ein leeres Konto im eingestellten {@link AccountLayout}
+     *
+     * @return das Konto
+     */
+    private TransactionStore newStore() {
+        return accountLayout == AccountLayout.COLUMNS ? new ColumnarAccount(dictionary, rateTable) : new Account(rateTable);
+    }
+
+    /**
+     * gibt die Nummer eines Kontos zurück
+     *
+     * @param account Name des Kontos
+     * @return die Nummer oder {@link AccountIds#ABSENT}
+     */
+    private int idOf(String account) {
+        return accountIds.find(account);
+    }
+
+    /**
+     * gibt die Nummer eines Kontos zurück, vergibt für ein neues Konto eine und vergrößert die Arrays nach Bedarf
+     *
+     * @param account Name des Kontos
+     * @return die Nummer
+     */
+    private int register(String account) {
+        int id = accountIds.add(account);
+        if (id >= accounts.length) {
+            int length = Math.max(2 * accounts.length, id + 1);
+            accounts = Arrays.copyOf(accounts, length);
+            accountFiles = Arrays.copyOf(accountFiles, length);
+            manifestEntries = Arrays.copyOf(manifestEntries, length);
+        }
+        return id;
+    }
+
+    /**
+     * vergisst ein Konto samt Transaktionen, Dateizustand und Verzeichniseintrag
+     *
+     * @param id die Nummer des Kontos oder {@link AccountIds#ABSENT}
+     */
+    private void forget(int id) {
+        if (id == AccountIds.ABSENT) {
+            return;
+        }
+        accountIds.remove(id);
+        accounts[id] = null;
+        accountFiles[id] = null;
+        manifestEntries[id] = null;
+    }
+
+    /**
+     * gibt die Namen aller Konten als Menge zurück, z.B. zum Vergleichen zweier Banken, deren Konten verschiedene
+     * Nummern haben
+     *
+     * @return die Namen
+     */
+    private synchronized Set<String> accountNames() {
+        return new HashSet<>(accountIds.names());
+    }
+
+    /**
+     * gibt die Dateien eines noch nicht geladenen Kontos zurück
+     *
+     * @param account Name des Kontos
+     * @return die Dateien mit ihrem Zustand oder null, wenn das Konto schon geladen ist
+     */
+    private synchronized Map<Path, FileStamp> unloadedFiles(String account) {
+        int id = idOf(account);
+        return id == AccountIds.ABSENT || accounts[id] != null ? null : accountFiles[id];
+    }
+
+    /**
+     * gibt die Transaktionen eines Kontos zurück und lädt es dafür, wenn nötig
+     *
+     * @param account Name des Kontos
+     * @return die Transaktionen oder null für ein unbekanntes Konto
+     */
+    private synchronized TransactionStore transactionsOf(String account) {
+        int id = idOf(account);
+        return id == AccountIds.ABSENT ? null : transactionsOf(id);
+    }
+
+    /**
+     * gibt an, ob Konten erst beim ersten Zugriff geladen werden
+     *
+     * @return true im Lazy-Modus
+     */
+    public boolean isLazyLoading() {
+        return lazyLoading;
+    }
+
+    /**
+     * Getter für loadParallelism
+     *
+     * @return wie viele Kontodateien beim Laden höchstens gleichzeitig gelesen werden
+     */
+    public int getLoadParallelism() {
+        return loadParallelism;
+    }
+
+    /**
+     * legt fest, wie viele Kontodateien beim Laden höchstens gleichzeitig gelesen werden. Mit 1 wird nacheinander auf
+     * dem aufrufenden Thread gelesen.
+     *
+     * @param loadParallelism Anzahl der Threads, mindestens 1
+     */
+    public synchronized void setLoadParallelism(int loadParallelism) {
+        if (loadParallelism < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.loadParallelism = loadParallelism;
+        shutdownLoaderPool();
+    }
+
+    private void shutdownLoaderPool() {
+        if (loaderPool != null) {
+            loaderPool.shutdown();
+            loaderPool = null;
+        }
+    }
+
+    /**
+     * gibt an, ob der Cache-Modus aktiv ist
+     *
+     * @return true, wenn der geladene Zustand maßgeblich ist
+     */
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    /**
+     * schaltet den Cache-Modus ein oder aus. Im Cache-Modus wird der Ordner einmal vollständig gelesen und danach
+     * werden nur noch Dateien nachgeladen, die der WatchService als geändert meldet. Ohne Cache-Modus wird der Ordner
+     * bei jedem Aufruf aufgelistet, aber nur Dateien mit geänderter Größe oder Änderungszeit werden neu eingelesen.
+     *
+     * @param cacheEnabled true, um den Cache-Modus einzuschalten
+     */
+    public synchronized void setCacheEnabled(boolean cacheEnabled) {
+        if (cacheEnabled == this.cacheEnabled) {
+            return;
+        }
+        this.cacheEnabled = cacheEnabled;
+        trustManifest = false;
+        if (cacheEnabled) {
+            try {
+                watchService = FileSystems.getDefault().newWatchService();
+                Paths.get(directoryName).toAbsolutePath().register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            } catch (IOException e) {
+                // ohne WatchService wird wie ohne Cache-Modus bei jedem Aufruf aufgelistet
+                lastFailure = e;
+                closeWatchService();
+            }
+            scanAccounts();
+        } else {
+            closeWatchService();
+        }
     }
 
     /**
@@ -145,15 +548,16 @@ public class PrivateBank implements Bank {
     public String toString() {
         return "PrivateBank{" +
                 "name='" + name + '\'' +
-                ", incomingInterest=" + incomingInterest +
-                ", outgoingInterest=" + outgoingInterest +
+                ", incomingInterest=" + getIncomingInterest() +
+                ", outgoingInterest=" + getOutgoingInterest() +
                 '}';
     }
 
     /**
-     * vergleicht zwei Kontos zusammen
+     * vergleicht zwei Banken. Im Lazy-Modus werden dafür nur die Konten geladen, die nicht auf beiden Seiten noch
+     * ungeladen aus denselben unveränderten Dateien stammen.
      *
-     * @param obj der zu vergleichendem Konto
+     * @param obj die zu vergleichende Bank
      * @return true, wenn beide Objekte gleich sind, ansonsten false
      */
     @Override
@@ -164,15 +568,33 @@ public class PrivateBank implements Bank {
         if (!(obj instanceof PrivateBank bank))
             return false;
 
-        return Objects.equals(this.name, bank.name) &&
-                Objects.equals(this.incomingInterest, bank.incomingInterest) &&
-                Objects.equals(this.outgoingInterest, bank.outgoingInterest) &&
-                Objects.equals(this.accountsToTransactions, bank.accountsToTransactions);
+        Set<String> names = accountNames();
+        if (!Objects.equals(this.name, bank.name) ||
+                !Objects.equals(this.getIncomingInterest(), bank.getIncomingInterest()) ||
+                !Objects.equals(this.getOutgoingInterest(), bank.getOutgoingInterest()) ||
+                !names.equals(bank.accountNames())) {
+            return false;
+        }
+        for (String account : names) {
+            Map<Path, FileStamp> files = unloadedFiles(account);
+            if (files != null && files.equals(bank.unloadedFiles(account))) {
+                continue;
+            }
+            if (!Objects.equals(transactionsOf(account), bank.transactionsOf(account))) {
+                return false;
+            }
+        }
+        return true;
     }
 
+    /**
+     * berechnet den Hash nur aus Name, Zinsen und Kontonamen, damit dafür kein Konto geladen werden muss
+     *
+     * @return der Hash
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(name, incomingInterest, outgoingInterest, accountsToTransactions);
+        return Objects.hash(name, getIncomingInterest(), getOutgoingInterest(), accountNames());
     }
 
 
@@ -183,11 +605,17 @@ public class PrivateBank implements Bank {
      * @throws AccountAlreadyExistsException if the account already exists
      */
     @Override
-    public void createAccount(String account) throws AccountAlreadyExistsException, IOException {
+    public synchronized void createAccount(String account) throws AccountAlreadyExistsException, IOException {
+        trustManifest = false;
         readAccounts();
-        if (!this.accountsToTransactions.containsKey(account)) {
-            accountsToTransactions.put(account, new ArrayList<>());
-            writeAccount(account);
+        if (idOf(account) == AccountIds.ABSENT) {
+            int id = register(account);
+            accounts[id] = newStore();
+            if (storageMode == StorageMode.LOG) {
+                createLog(id);
+            } else {
+                writeAccount(id);
+            }
         } else {
             throw new AccountAlreadyExistsException(("Account already exists: " + account));
         }
@@ -205,16 +633,21 @@ public class PrivateBank implements Bank {
      * @throws TransactionAttributeException    if the validation check for certain attributes fail
      */
     @Override
-    public void createAccount(String account, List<Transaction> transactions) throws AccountAlreadyExistsException, TransactionAlreadyExistException, TransactionAttributeException, AccountDoesNotExistException {
+    public synchronized void createAccount(String account, List<Transaction> transactions) throws AccountAlreadyExistsException, TransactionAlreadyExistException, TransactionAttributeException, AccountDoesNotExistException {
 
         try {
             createAccount(account);
+            validate(transactions);
+            Set<Transaction> seen = new HashSet<>();
+            for (Transaction transaction : transactions) {
+                if (!seen.add(transaction)) {
+                    throw new TransactionAlreadyExistException("Transaction already exists: " + transaction);
+                }
+            }
+            addAll(idOf(account), transactions);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        for (Transaction transaction : transactions) {
-            addTransaction(account, transaction);
-        }
     }
 
     /**
@@ -227,24 +660,23 @@ public class PrivateBank implements Bank {
      * @throws TransactionAttributeException    if the validation check for certain attributes fail
      */
     @Override
-    public void addTransaction(String account, Transaction transaction) throws TransactionAlreadyExistException, AccountDoesNotExistException, TransactionAttributeException {
+    public synchronized void addTransaction(String account, Transaction transaction) throws TransactionAlreadyExistException, AccountDoesNotExistException, TransactionAttributeException {
 
+        trustManifest = false;
         readAccounts();
-        if (!this.accountsToTransactions.containsKey(account)) {
+        int id = idOf(account);
+        if (id == AccountIds.ABSENT) {
             throw new AccountDoesNotExistException(("Account does not exist: " + account));
-        } else if (this.accountsToTransactions.get(account).contains(transaction)) {
+        } else if (transactionsOf(id).contains(transaction)) {
             throw new TransactionAlreadyExistException("Transaction already exists: " + transaction);
         } else if (!transaction.isValid()) {
             throw new TransactionAttributeException("Invalid transaction attributes.");
         } else {
-            if (transaction instanceof Payment payment) {
-                payment.setIncomingInterest(this.incomingInterest);
-                payment.setOutgoingInterest(this.outgoingInterest);
-            }
-            accountsToTransactions.get(account).add(transaction);
+            prepare(transaction);
+            transactionsOf(id).add(transaction);
 
             try {
-                writeAccount(account);
+                persist(id, AccountLog.ADD, transaction);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
@@ -252,6 +684,111 @@ public class PrivateBank implements Bank {
         }
     }
 
+    /**
+     * Adds many transactions to an already existing account at once, e.g. for a statement import.
+     * All transactions are validated before any of them is added. Transactions that already exist in the
+     * account or occur more than once in the batch are skipped. The account is persisted only once.
+     *
+     * @param account      the account to which the transactions are added
+     * @param transactions the transactions which should be added to the specified account
+     * @return the number of transactions that were actually added
+     * @throws AccountDoesNotExistException  if the specified account does not exist
+     * @throws TransactionAttributeException if the validation check for certain attributes fail
+     * @throws IOException                   if the account could not be written
+     */
+    @Override
+    public synchronized int addTransactions(String account, Collection<Transaction> transactions)
+            throws AccountDoesNotExistException, TransactionAttributeException, IOException {
+        trustManifest = false;
+        readAccounts();
+        int id = idOf(account);
+        if (id == AccountIds.ABSENT) {
+            throw new AccountDoesNotExistException(("Account does not exist: " + account));
+        }
+        validate(transactions);
+        return addAll(id, transactions);
+    }
+
+    /**
+     * Adds transactions to several already existing accounts at once. All accounts and transactions are validated
+     * before anything is added, each account is persisted only once.
+     *
+     * @param transactionsByAccount the transactions per account
+     * @return the number of transactions that were actually added
+     * @throws AccountDoesNotExistException  if one of the accounts does not exist
+     * @throws TransactionAttributeException if the validation check for certain attributes fail
+     * @throws IOException                   if an account could not be written
+     */
+    @Override
+    public synchronized int addTransactions(Map<String, ? extends Collection<Transaction>> transactionsByAccount)
+            throws AccountDoesNotExistException, TransactionAttributeException, IOException {
+        trustManifest = false;
+        readAccounts();
+        for (Map.Entry<String, ? extends Collection<Transaction>> entry : transactionsByAccount.entrySet()) {
+            if (idOf(entry.getKey()) == AccountIds.ABSENT) {
+                throw new AccountDoesNotExistException(("Account does not exist: " + entry.getKey()));
+            }
+            validate(entry.getValue());
+        }
+        int added = 0;
+        for (Map.Entry<String, ? extends Collection<Transaction>> entry : transactionsByAccount.entrySet()) {
+            added += addAll(idOf(entry.getKey()), entry.getValue());
+        }
+        return added;
+    }
+
+    /**
+     * prüft alle Transaktionen, bevor eine davon hinzugefügt wird
+     *
+     * @param transactions die Transaktionen
+     * @throws TransactionAttributeException wenn eine Transaktion ungültig ist
+     */
+    private static void validate(Collection<Transaction> transactions) throws TransactionAttributeException {
+        for (Transaction transaction : transactions) {
+            if (!transaction.isValid()) {
+                throw new TransactionAttributeException("Invalid transaction attributes.");
+            }
+        }
+    }
+
+    /**
+     * fügt mehrere bereits geprüfte Transaktionen zu einem existierenden Konto hinzu und überspringt Doppelte. Sie
+     * werden in einem Durchlauf über den Index des Kontos und eine HashSet für den Stapel erkannt, danach wird das
+     * Konto genau einmal gespeichert: als ein einziger Schreibvorgang ins Protokoll oder durch einmaliges Neuschreiben
+     * der Kontodatei.
+     *
+     * @param id           Nummer des Kontos
+     * @param transactions die Transaktionen, siehe {@link #validate(Collection)}
+     * @return die Anzahl der hinzugefügten Transaktionen
+     * @throws IOException if an output-related problem occurs
+     */
+    private int addAll(int id, Collection<Transaction> transactions) throws IOException {
+        TransactionStore existing = transactionsOf(id);
+        Set<Transaction> seen = new HashSet<>();
+        List<Transaction> added = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            prepare(transaction);
+            if (!existing.contains(transaction) && seen.add(transaction)) {
+                added.add(transaction);
+            }
+        }
+        if (added.isEmpty()) {
+            return 0;
+        }
+        for (Transaction transaction : added) {
+            existing.add(transaction);
+        }
+        if (storageMode == StorageMode.LOG) {
+            Path log = accountPath(accountIds.name(id), AccountLog.EXTENSION);
+            accountLog.append(log, AccountLog.ADD, added);
+            fileSyncer.written(log);
+            rememberFiles(id);
+        } else {
+            writeAccount(id);
+        }
+        return added.size();
+    }
+
     /**
      * Removes a transaction from an account. If the transaction does not exist, an exception is
      * thrown.
@@ -262,16 +799,18 @@ public class PrivateBank implements Bank {
      * @throws TransactionDoesNotExistException if the transaction cannot be found
      */
     @Override
-    public void removeTransaction(String account, Transaction transaction) throws AccountDoesNotExistException, TransactionDoesNotExistException, IOException {
+    public synchronized void removeTransaction(String account, Transaction transaction) throws AccountDoesNotExistException, TransactionDoesNotExistException, IOException {
+        trustManifest = false;
         readAccounts();
-        if (!this.accountsToTransactions.containsKey(account)) {
+        int id = idOf(account);
+        if (id == AccountIds.ABSENT) {
             throw new AccountDoesNotExistException(("Account does not exist: " + account));
-        } else if (!this.accountsToTransactions.get(account).contains(transaction)) {
+        } else if (!transactionsOf(id).contains(transaction)) {
             throw new TransactionDoesNotExistException("Transaction does not exist: " + transaction);
         } else {
-            accountsToTransactions.get(account).remove(transaction);
+            transactionsOf(id).remove(transaction);
 
-            writeAccount(account);
+            persist(id, AccountLog.REMOVE, transaction);
 
         }
     }
@@ -283,9 +822,10 @@ public class PrivateBank implements Bank {
      * @param transaction the transaction to search/look for
      */
     @Override
-    public boolean containsTransaction(String account, Transaction transaction) {
+    public synchronized boolean containsTransaction(String account, Transaction transaction) {
         readAccounts();
-        return accountsToTransactions.get(account).contains(transaction);
+        int id = idOf(account);
+        return id != AccountIds.ABSENT && transactionsOf(id).contains(transaction);
     }
 
 
@@ -296,18 +836,20 @@ public class PrivateBank implements Bank {
      * @return the current account balance
      */
     @Override
-    public double getAccountBalance(String account) {
+    public synchronized double getAccountBalance(String account) {
         readAccounts();
-        // Standardmäßig eine leere Liste, falls das Konto nicht existiert
-        List<Transaction> transactions = accountsToTransactions.getOrDefault(account, Collections.emptyList());
-        double amount = 0.0;
-
-        for (Transaction transaction : transactions) {
-            amount += transaction.calculate();
+        int id = idOf(account);
+        if (id == AccountIds.ABSENT) {
+            return 0.0;
+        }
+        if (accounts[id] == null) {
+            // noch nicht geladen: der Kontostand aus dem Verzeichnis gilt, solange die Dateien unverändert sind
+            BankManifest.Entry entry = validManifestEntry(id);
+            if (entry != null) {
+                return entry.balance();
+            }
         }
-        BigDecimal bigDecimalValue = new BigDecimal(amount);
-        bigDecimalValue = bigDecimalValue.setScale(3, RoundingMode.HALF_UP);
-        return bigDecimalValue.doubleValue();
+        return transactionsOf(id).balance();
     }
 
     /**
@@ -317,11 +859,51 @@ public class PrivateBank implements Bank {
      * @return the list of all transactions for the specified account
      */
     @Override
-    public List<Transaction> getTransactions(String account) {
-        if (!this.accountsToTransactions.containsKey(account)) {
+    public synchronized List<Transaction> getTransactions(String account) {
+        readAccounts();
+        int id = idOf(account);
+        if (id == AccountIds.ABSENT) {
             return Collections.emptyList();
         }
-        return accountsToTransactions.get(account);
+        return transactionsOf(id).asList();
+    }
+
+    /**
+     * gibt die Transaktionen eines Kontos aus einem Zeitraum nach Datum sortiert zurück, bei gleichem Datum in
+     * Einfügereihenfolge. Transaktionen, deren Datum in keinem bekannten Format ist, werden nicht gefunden.
+     *
+     * @param account the selected account
+     * @param from    erster Tag des Zeitraums, einschließlich
+     * @param to      letzter Tag des Zeitraums, einschließlich
+     * @return die Transaktionen
+     */
+    public synchronized List<Transaction> getTransactions(String account, LocalDate from, LocalDate to) {
+        readAccounts();
+        int id = idOf(account);
+        if (id == AccountIds.ABSENT) {
+            return Collections.emptyList();
+        }
+        // hinter LocalDate.MAX gibt es keinen nächsten Tag, der Zeitraum reicht dann bis zum Ende
+        long end = to.equals(LocalDate.MAX) ? Long.MAX_VALUE : TransactionDate.startOf(to.plusDays(1));
+        return transactionsOf(id).between(TransactionDate.startOf(from), end);
+    }
+
+    /**
+     * gibt den Kontostand zu einem Zeitpunkt zurück, also die Summe aller Transaktionen bis einschließlich diesem
+     * Zeitpunkt. Die Daten der Transaktionen gelten als UTC. Transaktionen, deren Datum in keinem bekannten Format ist,
+     * zählen nicht mit.
+     *
+     * @param account the selected account
+     * @param instant der Zeitpunkt
+     * @return der Kontostand oder 0, wenn es das Konto nicht gibt
+     */
+    public synchronized double getAccountBalanceAsOf(String account, Instant instant) {
+        readAccounts();
+        int id = idOf(account);
+        if (id == AccountIds.ABSENT) {
+            return 0.0;
+        }
+        return Money.toDouble(transactionsOf(id).balanceAsOfMinor(instant.getEpochSecond()));
     }
 
     /**
@@ -333,17 +915,14 @@ public class PrivateBank implements Bank {
      * @return the sorted list of all transactions for the specified account
      */
     @Override
-    public List<Transaction> getTransactionsSorted(String account, boolean asc) {
+    public synchronized List<Transaction> getTransactionsSorted(String account, boolean asc) {
         readAccounts();
-        List<Transaction> transactions = getTransactions(account);
-
-        if (asc) {
-            transactions.sort(Comparator.comparingDouble(Transaction::calculate));
-        } else {
-            transactions.sort(Comparator.comparing(Transaction::calculate).reversed());
+        // der sortierte Index des Kontos wird bei Änderungen mitgeführt, die Einfügereihenfolge bleibt unberührt
+        int id = idOf(account);
+        if (id == AccountIds.ABSENT) {
+            return Collections.emptyList();
         }
-
-        return transactions;
+        return transactionsOf(id).sorted(asc);
     }
 
     /**
@@ -354,30 +933,123 @@ public class PrivateBank implements Bank {
      * @return the list of all transactions by type
      */
     @Override
-    public List<Transaction> getTransactionsByType(String account, boolean positive) {
+    public synchronized List<Transaction> getTransactionsByType(String account, boolean positive) {
         readAccounts();
-        List<Transaction> transactions = getTransactions(account);
-        List<Transaction> filteredTransactions = new ArrayList<>();
-        Transaction transaction;
-        for (Transaction TKopie : transactions) {
-            transaction = TKopie;
-            double calculatedAmount = transaction.calculate();
-
-            if (positive) {
-                // Positive transactions: incoming payments or incoming transfers
-                if ((transaction instanceof Payment payment && payment.calculate() > 0) ||
-                        (transaction instanceof Transfer && calculatedAmount > 0)) {
-                    filteredTransactions.add(transaction);
-                }
-            } else {
-                // Negative transactions: outgoing payments or outgoing transfers
-                if ((transaction instanceof Payment payment && payment.calculate() < 0) ||
-                        (transaction instanceof Transfer && calculatedAmount < 0)) {
-                    filteredTransactions.add(transaction);
-                }
+        // die Partitionen werden beim Hinzufügen und Entfernen mitgeführt
+        int id = idOf(account);
+        if (id == AccountIds.ABSENT) {
+            return Collections.emptyList();
+        }
+        return transactionsOf(id).byType(positive);
+    }
+
+    /**
+     * gibt die Anzahl der positiven oder negativen Transaktionen (-> berechnete Beträge) eines Kontos zurück, ohne
+     * die Transaktionen durchzugehen
+     *
+     * @param account  the selected account
+     * @param positive selects if positive or negative transactions are counted
+     * @return die Anzahl
+     */
+    public synchronized int getTransactionCountByType(String account, boolean positive) {
+        readAccounts();
+        int id = idOf(account);
+        if (id == AccountIds.ABSENT) {
+            return 0;
+        }
+        return transactionsOf(id).countByType(positive);
+    }
+
+    /**
+     * gibt die Summe der positiven oder negativen Transaktionen (-> berechnete Beträge) eines Kontos zurück, ohne
+     * die Transaktionen durchzugehen
+     *
+     * @param account  the selected account
+     * @param positive selects if positive or negative transactions are summed up
+     * @return die Summe
+     */
+    public synchronized double getAccountSumByType(String account, boolean positive) {
+        readAccounts();
+        int id = idOf(account);
+        if (id == AccountIds.ABSENT) {
+            return 0.0;
+        }
+        return Money.toDouble(transactionsOf(id).sumByTypeMinor(positive));
+    }
+
+    /**
+     * gibt die k betragsmäßig größten Gutschriften (positive) bzw. Belastungen (negative) eines Kontos zurück, die
+     * größte zuerst und bei gleichem Betrag in Einfügereihenfolge. Das Konto wird dafür nicht vollständig sortiert.
+     *
+     * @param account  the selected account
+     * @param k        wie viele Transaktionen höchstens zurückgegeben werden
+     * @param positive true für Gutschriften, false für Belastungen
+     * @return die Transaktionen
+     */
+    public synchronized List<Transaction> getTopTransactions(String account, int k, boolean positive) {
+        readAccounts();
+        int id = idOf(account);
+        if (id == AccountIds.ABSENT) {
+            return Collections.emptyList();
+        }
+        return transactionsOf(id).top(k, positive);
+    }
+
+    /**
+     * gibt die k betragsmäßig größten Gutschriften (positive) bzw. Belastungen (negative) der ganzen Bank zurück. Die
+     * Ranglisten der einzelnen Konten werden mit {@link #getLoadParallelism()} Threads gleichzeitig ermittelt und
+     * danach zusammengeführt. Bei gleichem Betrag kommen die Konten in alphabetischer Reihenfolge.
+     *
+     * @param k        wie viele Transaktionen höchstens zurückgegeben werden
+     * @param positive true für Gutschriften, false für Belastungen
+     * @return die Transaktionen mit ihrem Konto
+     */
+    public synchronized List<RankedTransaction> getTopTransactions(int k, boolean positive) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        readAccounts();
+        loadAllAccounts();
+        int[] ids = accountIds.idsByName();
+        List<List<Transaction>> tops = new ArrayList<>();
+        if (loadParallelism <= 1 || ids.length <= 1) {
+            for (int id : ids) {
+                tops.add(accounts[id].top(k, positive));
+            }
+        } else {
+            // jede Aufgabe liest nur ihr eigenes Konto, geändert wird währenddessen nichts, da die Sperre gehalten wird
+            List<ForkJoinTask<List<Transaction>>> tasks = new ArrayList<>();
+            for (int id : ids) {
+                TransactionStore transactions = accounts[id];
+                tasks.add(loaderPool().submit(() -> transactions.top(k, positive)));
+            }
+            for (ForkJoinTask<List<Transaction>> task : tasks) {
+                tops.add(task.join());
             }
         }
-        return filteredTransactions;
+
+        // k-Wege-Mischen: an der Spitze steht der jeweils größte noch nicht übernommene Eintrag eines Kontos
+        record Cursor(int account, int position, long magnitude) {
+        }
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, ids.length), Comparator
+                .comparingLong(Cursor::magnitude).reversed()
+                .thenComparingInt(Cursor::account));
+        for (int i = 0; i < tops.size(); i++) {
+            if (!tops.get(i).isEmpty()) {
+                heap.add(new Cursor(i, 0, Math.abs(tops.get(i).get(0).calculateMinor())));
+            }
+        }
+        List<RankedTransaction> ranked = new ArrayList<>();
+        while (ranked.size() < k && !heap.isEmpty()) {
+            Cursor cursor = heap.poll();
+            List<Transaction> top = tops.get(cursor.account());
+            ranked.add(new RankedTransaction(accountIds.name(ids[cursor.account()]), top.get(cursor.position())));
+            int next = cursor.position() + 1;
+            if (next < top.size()) {
+                heap.add(new Cursor(cursor.account(), next, Math.abs(top.get(next).calculateMinor())));
+            }
+        }
+        return ranked;
     }
 
     /**
@@ -388,10 +1060,11 @@ public class PrivateBank implements Bank {
      * @throws IOException                  if something goes wrong with reading from or writing to a file
      */
     @Override
-    public void deleteAccount(String account) throws AccountDoesNotExistException, IOException {
+    public synchronized void deleteAccount(String account) throws AccountDoesNotExistException, IOException {
+        trustManifest = false;
         readAccounts();
 
-        if (!this.accountsToTransactions.containsKey(account)) {
+        if (idOf(account) == AccountIds.ABSENT) {
             throw new AccountDoesNotExistException(("Account does not exist: " + account));
         } else removeFile(account);
         readAccounts();
@@ -403,76 +1076,511 @@ public class PrivateBank implements Bank {
      * @return the list of all accounts
      */
     @Override
-    public List<String> getAllAccounts() {
+    public synchronized List<String> getAllAccounts() {
         readAccounts();
-        return new ArrayList<>(this.accountsToTransactions.keySet());
+        return accountIds.names();
     }
 
 
     /**
-     * liest alle Dateien von einem Ordner und ordnet jede Transaktion dem betroffenen Konto zu.
-     *
-     * @throws IOException if an input-related problem occurs.
+     * bringt die Konten auf den Stand des Ordners. Im Cache-Modus werden nur die vom WatchService gemeldeten Dateien
+     * nachgeladen, sonst wird der Ordner aufgelistet und nur Dateien mit geändertem Zustand werden neu gelesen. Eine
+     * aus dem {@link BankManifest} geöffnete Bank bleibt bis zur ersten Änderung auf dessen Stand.
      */
     private void readAccounts() {
-        Gson gson = new GsonBuilder()
-                .registerTypeAdapter(Transaction.class, new TransactionJsonAdapter())
-                .create();
+        if (trustManifest) {
+            return;
+        }
+        if (cacheEnabled && watchService != null) {
+            pollChanges();
+        } else {
+            scanAccounts();
+        }
+    }
 
+    /**
+     * listet alle Dateien von einem Ordner auf und liest die Konten neu ein, bei denen sich Größe oder Änderungszeit
+     * einer Datei seit dem letzten Lesen geändert hat. Konten, deren Dateien nicht mehr existieren, werden entfernt.
+     */
+    private void scanAccounts() {
         Path path = Paths.get(directoryName);
 
         try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
-            Map<String, List<Transaction>> newAccountsToTransactions = new HashMap<String, List<Transaction>>();
+            Map<String, List<Path>> filesByAccount = new HashMap<>();
             for (Path file : stream) {
+                String name = accountName(file);
+                if (name != null && Files.isRegularFile(file)) {
+                    filesByAccount.computeIfAbsent(name, n -> new ArrayList<>()).add(file);
+                }
+            }
+            Map<String, List<Path>> changed = new HashMap<>();
+            Map<String, Map<Path, FileStamp>> changedStamps = new HashMap<>();
+            for (Map.Entry<String, List<Path>> entry : filesByAccount.entrySet()) {
+                Map<Path, FileStamp> stamps = stampsOf(entry.getValue());
+                int id = idOf(entry.getKey());
+                if (id == AccountIds.ABSENT || !stamps.equals(accountFiles[id])) {
+                    changed.put(entry.getKey(), entry.getValue());
+                    changedStamps.put(entry.getKey(), stamps);
+                }
+            }
+            Map<String, Exception> failures = new TreeMap<>();
+            if (lazyLoading) {
+                // im Lazy-Modus wird das Konto nur vermerkt und erst beim ersten Zugriff gelesen
+                for (String name : changed.keySet()) {
+                    int id = register(name);
+                    accounts[id] = null;
+                }
+            } else {
+                for (Map.Entry<String, TransactionStore> entry : readAccountsParallel(changed, failures).entrySet()) {
+                    int id = register(entry.getKey());
+                    accounts[id] = entry.getValue();
+                }
+                // fehlerhafte Konten behalten ihren alten Zustand und werden beim nächsten Mal erneut gelesen
+                changedStamps.keySet().removeAll(failures.keySet());
+            }
+            for (Map.Entry<String, Map<Path, FileStamp>> entry : changedStamps.entrySet()) {
+                int id = register(entry.getKey());
+                accountFiles[id] = entry.getValue();
+            }
+            for (int id : accountIds.ids()) {
+                if (!filesByAccount.containsKey(accountIds.name(id))) {
+                    forget(id);
+                }
+            }
+            throwFirst(failures);
+        } catch (IOException e) {
+            System.out.println("Failed to read directory: " + e.getMessage());
+        }
+    }
 
+    /**
+     * arbeitet die Meldungen des WatchService ab und lädt nur die betroffenen Konten nach. Wenn Meldungen verloren
+     * gegangen sind, wird der Ordner einmal vollständig geprüft.
+     */
+    private void pollChanges() {
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    scanAccounts();
+                    continue;
+                }
+                Path file = Paths.get(directoryName).resolve((Path) event.context());
+                String name = accountName(file);
+                if (name == null) {
+                    continue;
+                }
+                List<Path> files = accountFilesBeside(file);
+                if (!files.isEmpty()) {
+                    try {
+                        loadAccountIfChanged(name, files);
+                    } catch (IOException e) {
+                        lastFailure = e;
+                    }
+                } else {
+                    forget(idOf(name));
+                }
+            }
+            key.reset();
+        }
+    }
 
-                if (Files.isRegularFile(file)) {
-                    String filename = file.getFileName().toString();
+    /**
+     * liest ein Konto nur dann neu ein, wenn sich der Zustand seiner Dateien seit dem letzten Lesen oder Schreiben
+     * geändert hat
+     *
+     * @param name  Name des Kontos
+     * @param files die Dateien des Kontos
+     * @throws IOException if an input-related problem occurs.
+     */
+    private void loadAccountIfChanged(String name, List<Path> files) throws IOException {
+        Map<Path, FileStamp> stamps = stampsOf(files);
+        int id = idOf(name);
+        if (id != AccountIds.ABSENT && stamps.equals(accountFiles[id])) {
+            return;
+        }
+        // im Lazy-Modus wird das Konto nur vermerkt und erst beim ersten Zugriff gelesen
+        TransactionStore transactions = lazyLoading ? null : readAccountFiles(files);
+        id = register(name);
+        accounts[id] = transactions;
+        accountFiles[id] = stamps;
+    }
 
+    /**
+     * gibt die Transaktionen eines Kontos zurück und lädt sie, falls das Konto im Lazy-Modus noch nicht gelesen wurde
+     *
+     * @param id Nummer eines existierenden Kontos
+     * @return die Transaktionen
+     */
+    private TransactionStore transactionsOf(int id) {
+        TransactionStore transactions = accounts[id];
+        if (transactions == null) {
+            try {
+                transactions = readAccountFiles(new ArrayList<>(accountFiles[id].keySet()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read account " + accountIds.name(id), e);
+            }
+            accounts[id] = transactions;
+        }
+        return transactions;
+    }
 
-                    String content = Files.readString(file);
+    /**
+     * lädt sofort alle Konten, die im Lazy-Modus noch nicht gelesen wurden, parallel mit
+     * {@link #getLoadParallelism()} Threads. Zusammen mit dem Lazy-Konstruktor lässt sich so der Grad der
+     * Parallelität vor dem ersten vollständigen Laden festlegen.
+     */
+    public synchronized void loadAllAccounts() {
+        Map<String, List<Path>> unloaded = new HashMap<>();
+        for (int id : accountIds.ids()) {
+            if (accounts[id] == null) {
+                unloaded.put(accountIds.name(id), new ArrayList<>(accountFiles[id].keySet()));
+            }
+        }
+        Map<String, Exception> failures = new TreeMap<>();
+        for (Map.Entry<String, TransactionStore> entry : readAccountsParallel(unloaded, failures).entrySet()) {
+            accounts[idOf(entry.getKey())] = entry.getValue();
+        }
+        try {
+            throwFirst(failures);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read accounts", e);
+        }
+    }
 
+    /**
+     * liest mehrere Konten gleichzeitig mit höchstens {@link #getLoadParallelism()} Threads. Jedes Konto wird für sich
+     * gelesen, das Ergebnis hängt deshalb nicht von der Reihenfolge der Threads ab. Ein fehlerhaftes Konto hält die
+     * anderen nicht auf, sein Fehler wird in failures eingetragen.
+     *
+     * @param filesByAccount die Dateien je Konto
+     * @param failures       bekommt für jedes Konto, das nicht gelesen werden konnte, den Fehler
+     * @return die Transaktionen je erfolgreich gelesenem Konto
+     */
+    private Map<String, TransactionStore> readAccountsParallel(Map<String, List<Path>> filesByAccount,
+                                                                Map<String, Exception> failures) {
+        Map<String, TransactionStore> accounts = new HashMap<>();
+        List<String> names = new ArrayList<>(filesByAccount.keySet());
+        Collections.sort(names);
+        if (loadParallelism <= 1 || names.size() <= 1) {
+            for (String name : names) {
+                try {
+                    accounts.put(name, readAccountFiles(filesByAccount.get(name)));
+                } catch (IOException | RuntimeException e) {
+                    failures.put(name, e);
+                }
+            }
+            return accounts;
+        }
 
-                    if (!filename.contains(" ") || !filename.endsWith(".json")) {
+        List<ForkJoinTask<TransactionStore>> tasks = new ArrayList<>();
+        for (String name : names) {
+            List<Path> files = filesByAccount.get(name);
+            tasks.add(loaderPool().submit(() -> readAccountFiles(files)));
+        }
+        for (int i = 0; i < names.size(); i++) {
+            try {
+                accounts.put(names.get(i), tasks.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.put(names.get(i), new InterruptedIOException("Interrupted while reading accounts"));
+            } catch (ExecutionException e) {
+                failures.put(names.get(i), e.getCause() instanceof Exception cause ? cause : e);
+            }
+        }
+        return accounts;
+    }
 
-                        continue;
-                    }
+    /**
+     * wirft den Fehler des alphabetisch ersten Kontos, das nicht gelesen werden konnte
+     *
+     * @param failures die Fehler je Konto, nach Namen sortiert
+     * @throws IOException if an input-related problem occurred
+     */
+    private static void throwFirst(Map<String, Exception> failures) throws IOException {
+        if (failures.isEmpty()) {
+            return;
+        }
+        Exception first = failures.values().iterator().next();
+        if (first instanceof IOException e) {
+            throw e;
+        } else if (first instanceof RuntimeException e) {
+            throw e;
+        }
+        throw new IOException(first);
+    }
 
-                    String name = filename.split(" ")[1].replace(".json", "");
-
-                    newAccountsToTransactions.put(name, new ArrayList<>());
-                    Type transactionListType = new TypeToken<List<Transaction>>() {
-                    }.getType();
-                    List<Transaction> transactions = gson.fromJson(content, transactionListType);
-                    if (transactions != null) {
-                        for (Transaction transaction : transactions) {
-
-                            if (transaction instanceof Payment payment) {
-                                payment.setIncomingInterest(this.incomingInterest);
-                                payment.setOutgoingInterest(this.outgoingInterest);
-                            }
-                            newAccountsToTransactions.get(name).add(transaction);
-                        }
-                    }
+    private ForkJoinPool loaderPool() {
+        if (loaderPool == null) {
+            loaderPool = new ForkJoinPool(loadParallelism);
+        }
+        return loaderPool;
+    }
 
+    /**
+     * liest alle Transaktionen eines Kontos: zuerst die Kontodatei als Ausgangsstand, danach das Protokoll. Beim
+     * Schreiben werden die Dateien anderer Formate gelöscht, mehrere Kontodateien bleiben nur nach einem Absturz
+     * dazwischen zurück. Dann gilt fest die Datei im eingestellten Format und nicht die mit der neueren
+     * Änderungszeit, fehlt sie, die vorhandene. Bei Payments werden die Zinsen der Bank gesetzt.
+     *
+     * @param files die Dateien des Kontos
+     * @return die Transaktionen des Kontos
+     * @throws IOException if an input-related problem occurs.
+     */
+    private TransactionStore readAccountFiles(List<Path> files) throws IOException {
+        TransactionStore accountTransactions = newStore();
+        Path snapshot = null;
+        for (Path file : files) {
+            AccountFormat format = AccountFormat.of(file.getFileName().toString());
+            if (format != null && (snapshot == null || format == accountFormat)) {
+                snapshot = file;
+            }
+        }
+        if (snapshot != null) {
+            int[] merged = new int[1];
+            AccountFormat.of(snapshot.getFileName().toString()).read(snapshot, transaction -> {
+                prepare(transaction);
+                // eine Kontodatei enthält keine gleichen Transaktionen, außer Payments älterer Versionen mit eigenen Zinsen
+                if (!accountTransactions.add(transaction)) {
+                    merged[0]++;
                 }
-                accountsToTransactions = newAccountsToTransactions;
+            });
+            mergedDuplicates.addAndGet(merged[0]);
+        }
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(AccountLog.EXTENSION)) {
+                accountLog.replay(file, accountTransactions, this::prepare);
+            }
+        }
+        return accountTransactions;
+    }
+
+    /**
+     * ermittelt den Kontonamen aus einem Dateinamen der Form "Konto + 'name' + .json", ".bin" oder ".log". Der Name
+     * darf selbst Leerzeichen enthalten.
+     *
+     * @param file die Datei
+     * @return der Kontoname oder null, wenn die Datei keine Kontodatei ist
+     */
+    private static String accountName(Path file) {
+        String filename = file.getFileName().toString();
+        String extension = extensionOf(filename);
+        if (!filename.startsWith(ACCOUNT_PREFIX) || !ACCOUNT_EXTENSIONS.contains(extension)
+                || filename.length() == ACCOUNT_PREFIX.length() + extension.length()) {
+            return null;
+        }
+        return filename.substring(ACCOUNT_PREFIX.length(), filename.length() - extension.length());
+    }
+
+    private static String extensionOf(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? "" : filename.substring(dot);
+    }
+
+    /**
+     * sucht zu einer Kontodatei alle existierenden Dateien desselben Kontos
+     *
+     * @param file eine Konto- oder Protokolldatei
+     * @return die existierenden Dateien des Kontos
+     */
+    private static List<Path> accountFilesBeside(Path file) {
+        String filename = file.getFileName().toString();
+        String base = filename.substring(0, filename.lastIndexOf('.'));
+        List<Path> files = new ArrayList<>();
+        for (String extension : ACCOUNT_EXTENSIONS) {
+            Path candidate = file.resolveSibling(base + extension);
+            if (Files.isRegularFile(candidate)) {
+                files.add(candidate);
             }
+        }
+        return files;
+    }
+
+    private static Map<Path, FileStamp> stampsOf(List<Path> files) throws IOException {
+        Map<Path, FileStamp> stamps = new HashMap<>();
+        for (Path file : files) {
+            stamps.put(file, stampOf(file));
+        }
+        return stamps;
+    }
+
+    private static FileStamp stampOf(Path file) throws IOException {
+        return new FileStamp(Files.getLastModifiedTime(file).toMillis(), Files.size(file));
+    }
+
+    /**
+     * bereitet eine gelesene oder neue Transaktion für ein Konto vor: verknüpft Payments mit der {@link RateTable}
+     * der Bank und ersetzt Beschreibung, Sender und Empfänger durch die gleichen Texte aus dem gemeinsamen
+     * {@link StringDictionary}
+     *
+     * @param transaction die Transaktion
+     */
+    private void prepare(Transaction transaction) {
+        if (transaction instanceof Payment payment) {
+            payment.useRates(rateTable);
+        }
+        transaction.description = dictionary.canonical(transaction.description);
+        if (transaction instanceof Transfer transfer) {
+            transfer.setSender(dictionary.canonical(transfer.getSender()));
+            transfer.setRecipient(dictionary.canonical(transfer.getRecipient()));
+        }
+    }
+
+    /**
+     * übernimmt die Konten aus dem {@link BankManifest} des Speicherorts, ohne Kontodateien zu lesen
+     *
+     * @return false, wenn es kein gültiges Verzeichnis gibt und der Ordner gelesen werden muss
+     */
+    private boolean openManifest() {
+        BankManifest manifest;
+        try {
+            manifest = BankManifest.read(Paths.get(directoryName));
         } catch (IOException e) {
-            System.out.println("Failed to read directory: " + e.getMessage());
+            // ein unlesbares Verzeichnis ersetzt nicht die Kontodateien, dann wird wie ohne Verzeichnis gelesen
+            lastFailure = e;
+            return false;
+        }
+        if (manifest == null) {
+            return false;
         }
+        // mit anderen Zinsen berechnete Kontostände gelten nicht, die Konten selbst schon
+        RateTable.Rates rates = rateTable.get();
+        boolean sameInterest = manifest.incomingInterest() == rates.incomingInterest()
+                && manifest.outgoingInterest() == rates.outgoingInterest();
+        manifestVersion = rates.version();
+        for (BankManifest.Entry entry : manifest.accounts()) {
+            int id = register(entry.account());
+            accounts[id] = null;
+            accountFiles[id] = stampsOf(entry);
+            if (sameInterest) {
+                manifestEntries[id] = entry;
+            }
+        }
+        trustManifest = true;
+        return true;
+    }
 
+    /**
+     * schreibt das {@link BankManifest} mit allen Konten, ihrer Anzahl an Transaktionen, ihrem Kontostand und einer
+     * Prüfsumme in den Speicherort. Konten, deren Dateien sich seit dem letzten Verzeichnis nicht geändert haben, werden
+     * dafür nicht gelesen. Sollte z.B. vor dem Beenden aufgerufen werden, damit der Lazy-Konstruktor beim nächsten
+     * Öffnen nur noch diese eine Datei lesen muss.
+     *
+     * @throws IOException if an input- or output-related problem occurs
+     */
+    public synchronized void saveManifest() throws IOException {
+        readAccounts();
+        RateTable.Rates rates = rateTable.get();
+        int[] ids = accountIds.idsByName();
+        BankManifest.Entry[] entries = new BankManifest.Entry[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            BankManifest.Entry entry = validManifestEntry(id);
+            if (entry == null) {
+                rememberFiles(id);
+                List<Path> files = new ArrayList<>(accountFiles[id].keySet());
+                List<BankManifest.FileEntry> fileEntries = new ArrayList<>();
+                for (Path file : files) {
+                    FileStamp stamp = accountFiles[id].get(file);
+                    fileEntries.add(new BankManifest.FileEntry(file.getFileName().toString(), stamp.size(),
+                            stamp.lastModified()));
+                }
+                fileEntries.sort(Comparator.comparing(BankManifest.FileEntry::file));
+                TransactionStore transactions = transactionsOf(id);
+                entry = new BankManifest.Entry(accountIds.name(id), fileEntries, transactions.size(),
+                        transactions.balance(), BankManifest.checksum(files));
+            }
+            entries[i] = entry;
+        }
+        new BankManifest(BankManifest.VERSION, rates.incomingInterest(), rates.outgoingInterest(), List.of(entries))
+                .write(Paths.get(directoryName));
+        manifestVersion = rates.version();
+        Arrays.fill(manifestEntries, null);
+        for (int i = 0; i < ids.length; i++) {
+            manifestEntries[ids[i]] = entries[i];
+        }
     }
 
+    /**
+     * prüft die Einträge des {@link BankManifest} anhand ihrer Prüfsumme, z.B. wenn Dateien bei gleicher Größe und
+     * Änderungszeit verändert worden sein könnten. Dafür werden alle Dateien gelesen. Abweichende Einträge werden
+     * verworfen, die Konten werden dann beim nächsten Zugriff aus ihren Dateien gelesen. Danach wird auch der Ordner
+     * wieder bei jedem Zugriff auf Änderungen geprüft.
+     *
+     * @return die Konten, deren Einträge nicht mehr gestimmt haben
+     * @throws IOException if an input-related problem occurs
+     */
+    public synchronized List<String> verifyManifest() throws IOException {
+        trustManifest = false;
+        List<String> stale = new ArrayList<>();
+        for (int id : accountIds.ids()) {
+            BankManifest.Entry entry = manifestEntries[id];
+            if (entry == null) {
+                continue;
+            }
+            Map<Path, FileStamp> stamps = stampsOf(entry);
+            boolean valid = true;
+            for (Path file : stamps.keySet()) {
+                valid &= Files.isRegularFile(file);
+            }
+            if (!valid || BankManifest.checksum(new ArrayList<>(stamps.keySet())) != entry.checksum()) {
+                manifestEntries[id] = null;
+                stale.add(entry.account());
+            }
+        }
+        Collections.sort(stale);
+        return stale;
+    }
 
     /**
-     * nimmt den Namen eines Accounts und speichert alle seiner Transaktionen in einer JSON-geeigneten Format und dann
-     * überschreibt die alte JSON-Datei
+     * gibt den Eintrag eines Kontos aus dem {@link BankManifest} zurück, wenn seine Dateien noch genau den
+     * vermerkten Zustand haben
      *
-     * @param account Name des Kontos
+     * @param id Nummer des Kontos
+     * @return der Eintrag oder null
+     */
+    private BankManifest.Entry validManifestEntry(int id) {
+        if (manifestVersion != rateTable.getVersion()) {
+            return null;
+        }
+        BankManifest.Entry entry = manifestEntries[id];
+        if (entry != null && !stampsOf(entry).equals(accountFiles[id])) {
+            manifestEntries[id] = null;
+            return null;
+        }
+        return entry;
+    }
+
+    private Map<Path, FileStamp> stampsOf(BankManifest.Entry entry) {
+        Map<Path, FileStamp> stamps = new HashMap<>();
+        for (BankManifest.FileEntry file : entry.files()) {
+            stamps.put(Paths.get(directoryName, file.file()), new FileStamp(file.lastModified(), file.size()));
+        }
+        return stamps;
+    }
+
+    private void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                lastFailure = e;
+            }
+            watchService = null;
+        }
+    }
+
+
+    /**
+     * nimmt den Namen eines Accounts und speichert alle seiner Transaktionen im eingestellten Format. Der neue Stand
+     * wird zuerst in eine temporäre Datei geschrieben und ersetzt dann die alte Kontodatei atomar, sodass ein Absturz
+     * beim Schreiben immer entweder den alten oder den neuen vollständigen Stand hinterlässt.
+     *
+     * @param id Nummer des Kontos
      * @throws IOException if an output-related problem occurs
      */
-    private void writeAccount(String account) throws IOException {
+    private void writeAccount(int id) throws IOException {
+        String account = accountIds.name(id);
 
 
         File directory = new File(directoryName);
@@ -481,47 +1589,243 @@ public class PrivateBank implements Bank {
                 throw new IOException("Failed to create directory: " + directory.getAbsolutePath());
             }
         }
-        String filename = "Konto " + account + ".json";
-        File file = new File(directory, filename);
+        Path file = accountPath(account, accountFormat.getExtension());
+        Path temp = accountPath(account, accountFormat.getExtension() + ".tmp");
 
-        try (FileWriter writer = new FileWriter(file)) {
-            List<Transaction> transactions = getTransactions(account);
-            if (transactions == null || transactions.isEmpty()) {
+        boolean written = false;
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            List<Transaction> transactions = transactionsOf(id).asList();
+            if (transactions.isEmpty()) {
                 System.out.println("Keine Transaktionen für Konto: " + account);
-                return;
             }
+            accountFormat.write(out, transactions);
+            out.flush();
+            written = true;
+        } catch (IOException e) {
+            System.out.println("An error occurred while writing to file: " + e.getMessage());
+        }
+        // die Kontodatei enthält jetzt den vollständigen Stand, altes Protokoll und alte Formate werden nicht mehr gebraucht
+        if (written) {
+            fileSyncer.replace(temp, file);
+            deleteOtherAccountFiles(account, accountFormat.getExtension());
+        } else {
+            Files.deleteIfExists(temp);
+        }
+        rememberFiles(id);
+    }
 
-            Gson gson = new GsonBuilder()
-                    .registerTypeAdapter(Transaction.class, new TransactionJsonAdapter())
-                    .create();
+    /**
+     * löscht alle Dateien eines Kontos außer der mit der angegebenen Endung
+     *
+     * @param account   Name des Kontos
+     * @param extension die Endung der Datei, die bleibt
+     * @throws IOException if an output-related problem occurs
+     */
+    private void deleteOtherAccountFiles(String account, String extension) throws IOException {
+        for (String other : ACCOUNT_EXTENSIONS) {
+            if (!other.equals(extension)) {
+                Path file = accountPath(account, other);
+                Files.deleteIfExists(file);
+                fileSyncer.deleted(file);
+            }
+        }
+    }
 
-            JsonArray jsonArray = new JsonArray();
+    /**
+     * gibt die Konten zurück, deren Protokoll mindestens die angegebene Größe hat. Ein Protokoll, dessen Größe nicht
+     * gelesen werden kann, zählt mit, damit sein Fehler beim Zusammenfassen gemeldet wird.
+     *
+     * @param minLogBytes minimale Größe des Protokolls in Bytes
+     * @return die Namen der betroffenen Konten
+     */
+    synchronized List<String> accountsWithLogSize(long minLogBytes) {
+        List<String> accounts = new ArrayList<>();
+        for (String account : accountIds.names()) {
+            Path log = accountPath(account, AccountLog.EXTENSION);
+            try {
+                if (Files.isRegularFile(log) && Files.size(log) >= minLogBytes) {
+                    accounts.add(account);
+                }
+            } catch (IOException e) {
+                accounts.add(account);
+            }
+        }
+        return accounts;
+    }
 
-            for (Transaction transaction : transactions) {
-                // Use the custom serializer to get the desired format
-                JsonObject serializedTransaction = gson.toJsonTree(transaction, Transaction.class).getAsJsonObject();
-                jsonArray.add(serializedTransaction);
+    /**
+     * fasst das Protokoll eines Kontos in der Kontodatei im aktuellen Format zusammen. Der neue Stand wird ohne Sperre
+     * auf die Bank in eine temporäre Datei geschrieben, damit Anfragen weiterlaufen. Danach werden unter Sperre die
+     * Einträge, die inzwischen angehängt wurden, in ein neues kurzes Protokoll kopiert und beide Dateien atomar
+     * ersetzt. Ein Leser sieht dadurch immer entweder den alten oder den neuen Stand; bricht der Vorgang dazwischen ab,
+     * wird das alte Protokoll nur noch einmal eingespielt, was nichts ändert.
+     *
+     * @param account  Name des Kontos
+     * @param snapshot öffnet den Datenstrom für die temporäre JSON-Datei, z.B. um den Durchsatz zu begrenzen
+     * @return true, wenn das Konto zusammengefasst wurde, false, wenn es sich inzwischen anders geändert hat
+     * @throws IOException if an input- or output-related problem occurs
+     */
+    boolean compactAccount(String account, UnaryOperator<OutputStream> snapshot) throws IOException {
+        Path log = accountPath(account, AccountLog.EXTENSION);
+        Path logTemp = accountPath(account, AccountLog.EXTENSION + ".tmp");
+
+        List<Transaction> transactions;
+        AccountFormat format;
+        Map<Path, FileStamp> snapshotStamps;
+        long logOffset;
+        synchronized (this) {
+            int id = idOf(account);
+            if (id == AccountIds.ABSENT || !Files.isRegularFile(log)) {
+                return false;
             }
+            transactions = transactionsOf(id).asList();
+            format = accountFormat;
+            snapshotStamps = snapshotStamps(account);
+            logOffset = Files.size(log);
+        }
+        Path target = accountPath(account, format.getExtension());
+        Path targetTemp = accountPath(account, format.getExtension() + ".tmp");
+
+        try (FileOutputStream out = new FileOutputStream(targetTemp.toFile())) {
+            OutputStream stream = snapshot.apply(out);
+            format.write(stream, transactions);
+            stream.flush();
+            out.getChannel().force(true);
+        }
 
-            writer.write(jsonArray.toString());
-        } catch (IOException e) {
-            System.out.println("An error occurred while writing to file: " + e.getMessage());
+        synchronized (this) {
+            if (!snapshotStamps.equals(snapshotStamps(account)) || !Files.isRegularFile(log) || Files.size(log) < logOffset) {
+                Files.deleteIfExists(targetTemp);
+                return false;
+            }
+            try (FileChannel source = FileChannel.open(log, StandardOpenOption.READ);
+                 FileChannel tail = FileChannel.open(logTemp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                long size = source.size();
+                long position = logOffset;
+                while (position < size) {
+                    position += source.transferTo(position, size - position, tail);
+                }
+                tail.force(true);
+            }
+            Files.move(targetTemp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(logTemp, log, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            // beide Dateien sind schon synchronisiert, erst mit dem Verzeichnis übersteht das Umbenennen einen Absturz
+            FileSyncer.forceDirectory(log.toAbsolutePath().getParent());
+            fileSyncer.deleted(target);
+            fileSyncer.deleted(log);
+            for (AccountFormat other : AccountFormat.values()) {
+                if (other != format) {
+                    Path file = accountPath(account, other.getExtension());
+                    Files.deleteIfExists(file);
+                    fileSyncer.deleted(file);
+                }
+            }
+            int id = idOf(account);
+            if (id != AccountIds.ABSENT) {
+                rememberFiles(id);
+            }
+            return true;
         }
+    }
 
+    /**
+     * ermittelt den Zustand aller Kontodateien eines Kontos ohne das Protokoll
+     *
+     * @param account Name des Kontos
+     * @return Zustand je vorhandener Kontodatei
+     * @throws IOException if an input-related problem occurs
+     */
+    private Map<Path, FileStamp> snapshotStamps(String account) throws IOException {
+        Map<Path, FileStamp> stamps = new HashMap<>();
+        for (AccountFormat format : AccountFormat.values()) {
+            Path file = accountPath(account, format.getExtension());
+            if (Files.exists(file)) {
+                stamps.put(file, stampOf(file));
+            }
+        }
+        return stamps;
+    }
 
+    /**
+     * speichert eine einzelne Änderung eines Kontos je nach Speichermodus als Protokolleintrag oder durch Neuschreiben
+     * der ganzen Kontodatei
+     *
+     * @param id          Nummer des Kontos
+     * @param operation   {@link AccountLog#ADD} oder {@link AccountLog#REMOVE}
+     * @param transaction die betroffene Transaktion
+     * @throws IOException if an output-related problem occurs
+     */
+    private void persist(int id, String operation, Transaction transaction) throws IOException {
+        if (storageMode == StorageMode.LOG) {
+            Path log = accountPath(accountIds.name(id), AccountLog.EXTENSION);
+            accountLog.append(log, operation, transaction);
+            fileSyncer.written(log);
+            rememberFiles(id);
+        } else {
+            writeAccount(id);
+        }
     }
 
     /**
-     * Entfernt eine Datei nach einem gegebenen Namen. Das genaue Dateiformat ist "Konto + 'name' + .json"
+     * legt ein leeres Protokoll für ein neues Konto an
+     *
+     * @param id Nummer des Kontos
+     * @throws IOException if an output-related problem occurs
+     */
+    private void createLog(int id) throws IOException {
+        Files.createDirectories(Paths.get(directoryName));
+        Path log = accountPath(accountIds.name(id), AccountLog.EXTENSION);
+        if (!Files.exists(log)) {
+            Files.createFile(log);
+            fileSyncer.created(log);
+        }
+        rememberFiles(id);
+    }
+
+    /**
+     * merkt sich den Zustand der Dateien eines Kontos, damit eigene Schreibvorgänge beim nächsten Lesen nicht als
+     * Änderung erkannt werden
+     *
+     * @param id Nummer des Kontos
+     * @throws IOException if an input-related problem occurs
+     */
+    private void rememberFiles(int id) throws IOException {
+        accountFiles[id] = stampsOf(accountFilesBeside(accountPath(accountIds.name(id), AccountLog.EXTENSION)));
+    }
+
+    /**
+     * gibt den Pfad einer Datei des Kontos zurück
+     *
+     * @param account   Name des Kontos
+     * @param extension ".json", ".bin" oder ".log"
+     * @return der Pfad "Konto + 'name' + extension" im Speicherort der Bank
+     */
+    private Path accountPath(String account, String extension) {
+        return Paths.get(directoryName, ACCOUNT_PREFIX + account + extension);
+    }
+
+    /**
+     * Entfernt eine Datei nach einem gegebenen Namen. Das genaue Dateiformat ist "Konto + 'name' + .json", eine
+     * Binärdatei "Konto + 'name' + .bin" und ein Protokoll "Konto + 'name' + .log" werden ebenfalls entfernt
      *
      * @param name der Name der zu entfernenden Datei
      */
-    public void removeFile(String name) {
+    public synchronized void removeFile(String name) {
+        trustManifest = false;
         readAccounts();
         Path path = Paths.get(directoryName + "/Konto " + name + ".json");
 
         try {
-            Files.delete(path);  // Deletes the file
+            boolean otherDeleted = Files.deleteIfExists(accountPath(name, AccountLog.EXTENSION))
+                    | Files.deleteIfExists(accountPath(name, AccountFormat.BINARY.getExtension()));
+            if (!otherDeleted || Files.exists(path)) {
+                Files.delete(path);  // Deletes the file
+            }
+            for (String extension : ACCOUNT_EXTENSIONS) {
+                fileSyncer.deleted(accountPath(name, extension));
+            }
+            forget(idOf(name));
             System.out.println("File deleted successfully.");
         } catch (NoSuchFileException e) {
             System.err.println("File not found: " + e);
@@ -539,7 +1843,7 @@ public class PrivateBank implements Bank {
      * @param account der name, den wir finden wollen
      * @return true if account exists, otherwise fasle
      */
-    public boolean accountExists(String account) {
+    public synchronized boolean accountExists(String account) {
         List<String> accounts = getAllAccounts();
         boolean exists = false;
         for (String ac : accounts) {
@@ -0,0 +1,10 @@
+package bank;
+
+/**
+ * eine Transaktion aus einer bankweiten Rangliste zusammen mit dem Konto, zu dem sie gehört
+ *
+ * @param account     Name des Kontos
+ * @param transaction die Transaktion
+ */
+public record RankedTransaction(String account, Transaction transaction) {
+}
@@ -0,0 +1,81 @@
+package bank;
+
+/**
+ * die Zinsen einer Bank, auf die alle ihre Payments verweisen. Eine Änderung ersetzt nur den Eintrag der Tabelle und
+ * erhöht die Version, die Payments selbst werden dabei nicht angefasst. Konten merken sich die Version, mit der sie
+ * ihre Kontostände berechnet haben, und rechnen bei der nächsten Abfrage nach einer Änderung neu. Darf von mehreren
+ * Threads gleichzeitig gelesen werden.
+ */
+public class RateTable {
+
+    /**
+     * ein Stand der Tabelle
+     *
+     * @param incomingInterest eingehende Zinsen zwischen 0 und 1
+     * @param outgoingInterest ausgehende Zinsen zwischen 0 und 1
+     * @param version          wird bei jeder Änderung um eins erhöht
+     */
+    public record Rates(double incomingInterest, double outgoingInterest, long version) {
+    }
+
+    private volatile Rates rates;
+
+    /**
+     * Konstruktor
+     *
+     * @param incomingInterest eingehende Zinsen
+     * @param outgoingInterest ausgehende Zinsen
+     */
+    public RateTable(double incomingInterest, double outgoingInterest) {
+        this.rates = new Rates(incomingInterest, outgoingInterest, 0);
+    }
+
+    /**
+     * gibt den aktuellen Stand zurück, damit beide Zinsen aus derselben Version gelesen werden
+     *
+     * @return der Stand
+     */
+    public Rates get() {
+        return rates;
+    }
+
+    public double getIncomingInterest() {
+        return rates.incomingInterest();
+    }
+
+    public double getOutgoingInterest() {
+        return rates.outgoingInterest();
+    }
+
+    public long getVersion() {
+        return rates.version();
+    }
+
+    /**
+     * setzt die eingehenden Zinsen
+     *
+     * @param incomingInterest die Zinsen zwischen 0 und 1
+     * @throws IllegalArgumentException wenn die Zinsen außerhalb von [0:1] liegen
+     */
+    public synchronized void setIncomingInterest(double incomingInterest) {
+        check(incomingInterest);
+        rates = new Rates(incomingInterest, rates.outgoingInterest(), rates.version() + 1);
+    }
+
+    /**
+     * setzt die ausgehenden Zinsen
+     *
+     * @param outgoingInterest die Zinsen zwischen 0 und 1
+     * @throws IllegalArgumentException wenn die Zinsen außerhalb von [0:1] liegen
+     */
+    public synchronized void setOutgoingInterest(double outgoingInterest) {
+        check(outgoingInterest);
+        rates = new Rates(rates.incomingInterest(), outgoingInterest, rates.version() + 1);
+    }
+
+    private static void check(double interest) {
+        if (interest < 0 || interest > 1) {
+            throw new IllegalArgumentException("Interest must be between 0 and 1");
+        }
+    }
+}
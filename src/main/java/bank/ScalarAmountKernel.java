@@ -0,0 +1,36 @@
+package bank;
+
+/**
+ * {@link AmountKernel} als einfache Schleife, läuft überall
+ */
+public class ScalarAmountKernel implements AmountKernel {
+
+    @Override
+    public void calculateMinor(double[] amounts, int from, int to, double incomingInterest, double outgoingInterest,
+                               long[] result) {
+        for (int i = from; i < to; i++) {
+            result[i] = Payment.calculateMinor(amounts[i], incomingInterest, outgoingInterest);
+        }
+    }
+
+    @Override
+    public Totals totals(long[] minor, int from, int to) {
+        long sum = 0;
+        long positiveSum = 0;
+        long negativeSum = 0;
+        int positiveCount = 0;
+        int negativeCount = 0;
+        for (int i = from; i < to; i++) {
+            long amount = minor[i];
+            sum += amount;
+            if (amount > 0) {
+                positiveSum += amount;
+                positiveCount++;
+            } else if (amount < 0) {
+                negativeSum += amount;
+                negativeCount++;
+            }
+        }
+        return new Totals(sum, positiveSum, negativeSum, positiveCount, negativeCount);
+    }
+}
@@ -0,0 +1,16 @@
+package bank;
+
+/**
+ * legt fest, wie eine PrivateBank Änderungen an einem Konto speichert
+ */
+public enum StorageMode {
+    /**
+     * jede Änderung schreibt die komplette Kontodatei "Konto + 'name' + .json" neu
+     */
+    SNAPSHOT,
+    /**
+     * jede Änderung hängt genau einen Eintrag an das Protokoll "Konto + 'name' + .log" an. Eine vorhandene
+     * JSON-Datei bleibt als Ausgangsstand erhalten und wird beim Lesen vor dem Protokoll eingespielt.
+     */
+    LOG
+}
@@ -0,0 +1,103 @@
+package bank;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * vergibt für Texte wie Beschreibungen und Namen der Gegenseite fortlaufende Nummern, damit jeder Text nur einmal im
+ * Speicher liegt und Vergleiche nur Nummern vergleichen. Eine PrivateBank hat ein gemeinsames Verzeichnis für alle
+ * Konten. Nummern werden nie wieder vergeben oder entfernt, das Verzeichnis wächst also mit der Zahl verschiedener
+ * Texte, die je vorkamen. Für Texte, die fast immer neu sind wie Datumsangaben, ist es deshalb nicht gedacht. Darf von
+ * mehreren Threads gleichzeitig benutzt werden, z.B. beim parallelen Laden der Konten.
+ */
+public class StringDictionary {
+
+    /**
+     * Nummer für null
+     */
+    public static final int NULL = -1;
+    /**
+     * Ergebnis von {@link #find(String)} für einen Text, der nicht im Verzeichnis ist
+     */
+    public static final int ABSENT = -2;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    /**
+     * die Texte nach Nummer. Wird nur unter der Sperre verändert und beim Vergrößern als Kopie neu veröffentlicht, damit
+     * {@link #get(int)} ohne Sperre lesen kann.
+     */
+    private volatile String[] values = new String[64];
+    private int size;
+
+    /**
+     * gibt die Nummer eines Textes zurück und nimmt ihn auf, wenn er noch nicht im Verzeichnis ist
+     *
+     * @param text der Text
+     * @return die Nummer oder {@link #NULL}
+     */
+    public int intern(String text) {
+        if (text == null) {
+            return NULL;
+        }
+        Integer id = ids.get(text);
+        return id != null ? id : add(text);
+    }
+
+    private synchronized int add(String text) {
+        Integer id = ids.get(text);
+        if (id != null) {
+            return id;
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, 2 * size);
+        }
+        current[size] = text;
+        values = current;
+        ids.put(text, size);
+        return size++;
+    }
+
+    /**
+     * gibt die Nummer eines Textes zurück, ohne ihn aufzunehmen
+     *
+     * @param text der Text
+     * @return die Nummer, {@link #NULL} oder {@link #ABSENT}
+     */
+    public int find(String text) {
+        if (text == null) {
+            return NULL;
+        }
+        Integer id = ids.get(text);
+        return id == null ? ABSENT : id;
+    }
+
+    /**
+     * gibt den Text zu einer Nummer zurück
+     *
+     * @param id die Nummer aus {@link #intern(String)}
+     * @return der Text, null für {@link #NULL}
+     */
+    public String get(int id) {
+        return id == NULL ? null : values[id];
+    }
+
+    /**
+     * gibt den gespeicherten gleichen Text zurück, damit gleiche Texte dasselbe Objekt sind
+     *
+     * @param text der Text
+     * @return der Text aus dem Verzeichnis
+     */
+    public String canonical(String text) {
+        return get(intern(text));
+    }
+
+    /**
+     * gibt die Anzahl der Texte zurück
+     *
+     * @return die Anzahl
+     */
+    public int size() {
+        return ids.size();
+    }
+}
@@ -19,6 +19,11 @@ public abstract class Transaction implements CalculateBill {
      * speichert zusätzliche Beschreibung für den Vorgang
      */
     protected String description;
+    /**
+     * das gelesene Datum in Sekunden seit dem 01.01.1970, gültig solange parsedDate dasselbe Objekt wie date ist
+     */
+    private transient long epochSecond;
+    private transient String parsedDate;
 
     /**
      * Konstruktor für alle Attribute und benutzt das Setter von Amount, für Wertkontrolle
@@ -66,6 +71,21 @@ public abstract class Transaction implements CalculateBill {
         return date;
     }
 
+    /**
+     * gibt das Datum in Sekunden seit dem 01.01.1970 zurück, siehe {@link TransactionDate}. Das Datum wird nur beim
+     * ersten Aufruf nach einer Änderung gelesen.
+     *
+     * @return die Sekunden oder {@link TransactionDate#UNKNOWN}, wenn das Datum in keinem bekannten Format ist
+     */
+    public long getEpochSecond() {
+        String current = date;
+        if (current != parsedDate) {
+            epochSecond = TransactionDate.parse(current);
+            parsedDate = current;
+        }
+        return epochSecond;
+    }
+
     /**
      * setter für Date
      *
@@ -93,6 +113,16 @@ public abstract class Transaction implements CalculateBill {
         this.description = description;
     }
 
+    /**
+     * gibt den berechneten Betrag wie {@link #calculate()} als Festkommazahl in Tausendsteln zurück, siehe
+     * {@link Money}
+     *
+     * @return der berechnete Betrag in Tausendsteln
+     */
+    public long calculateMinor() {
+        return Money.of(calculate());
+    }
+
     /**
      * überprüft die Korrektheit der Angaben
      * @return true, wenn alles richtig eingegeben ist, ansonsten false
@@ -0,0 +1,82 @@
+package bank;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * wandelt die Datumsangaben der Transaktionen in Sekunden seit dem 01.01.1970 um, damit nach Zeiträumen gesucht
+ * werden kann. Das Datum wird wie eine Uhrzeit in UTC behandelt, Zeitzonen spielen keine Rolle. Erkannt werden die
+ * Formate, die in der Anwendung vorkommen: "dd.MM.yyyy", "dd.MM.yyyy HH:mm:ss" und "yyyy-MM-dd".
+ */
+public final class TransactionDate {
+
+    /**
+     * Ergebnis für ein Datum, das in keinem bekannten Format ist
+     */
+    public static final long UNKNOWN = Long.MIN_VALUE;
+
+    private TransactionDate() {
+    }
+
+    /**
+     * liest ein Datum
+     *
+     * @param date das Datum als Text
+     * @return Sekunden seit dem 01.01.1970 oder {@link #UNKNOWN}
+     */
+    public static long parse(String date) {
+        if (date == null) {
+            return UNKNOWN;
+        }
+        try {
+            if (date.length() == 10 && date.charAt(2) == '.' && date.charAt(5) == '.') {
+                return epochSecond(number(date, 6, 10), number(date, 3, 5), number(date, 0, 2), 0, 0, 0);
+            } else if (date.length() == 19 && date.charAt(2) == '.' && date.charAt(5) == '.' && date.charAt(10) == ' '
+                    && date.charAt(13) == ':' && date.charAt(16) == ':') {
+                return epochSecond(number(date, 6, 10), number(date, 3, 5), number(date, 0, 2),
+                        number(date, 11, 13), number(date, 14, 16), number(date, 17, 19));
+            } else if (date.length() == 10 && date.charAt(4) == '-' && date.charAt(7) == '-') {
+                return epochSecond(number(date, 0, 4), number(date, 5, 7), number(date, 8, 10), 0, 0, 0);
+            }
+        } catch (DateTimeException e) {
+            // z.B. der 31.02., wird wie ein unbekanntes Format behandelt
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * gibt den Beginn eines Tages in Sekunden seit dem 01.01.1970 zurück
+     *
+     * @param day der Tag
+     * @return die Sekunden
+     */
+    public static long startOf(LocalDate day) {
+        return day.toEpochDay() * 86_400;
+    }
+
+    private static long epochSecond(int year, int month, int day, int hour, int minute, int second) {
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0) {
+            return UNKNOWN;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * liest eine Zahl aus Ziffern ohne Vorzeichen
+     *
+     * @return die Zahl oder -1, wenn ein Zeichen keine Ziffer ist
+     */
+    private static int number(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
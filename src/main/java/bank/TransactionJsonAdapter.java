@@ -1,57 +1,191 @@
 package bank;
-import com.google.gson.*;
 
-import java.lang.reflect.Type;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-public class TransactionJsonAdapter implements JsonSerializer<Transaction>, JsonDeserializer<Transaction> {
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * liest und schreibt Transaktionen im Format {"CLASSNAME":"Payment","INSTANCE":{...}} direkt auf dem JsonReader bzw.
+ * JsonWriter, ohne Reflection und ohne Zwischenbaum. Die Felder von INSTANCE werden in derselben Reihenfolge
+ * geschrieben wie bisher von Gson (zuerst die Felder der Unterklasse, dann date, amount und description), damit
+ * vorhandene Dateien Byte für Byte gleich bleiben.
+ */
+public class TransactionJsonAdapter extends TypeAdapter<Transaction> {
 
     /**
-     * @param jsonElement
-     * @param type
-     * @param context
-     * @return
-     * @throws JsonParseException
+     * alle Klassen, die als CLASSNAME vorkommen dürfen, mit ihrem default Konstruktor
      */
-    @Override
-    public Transaction deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext context) throws JsonParseException {
-
-        JsonObject jsonObject = jsonElement.getAsJsonObject();
-        String className = jsonObject.get("CLASSNAME").getAsString();
-        JsonElement instanceElement = jsonObject.get("INSTANCE");
-
-        try {
-            // Use reflection to find the class corresponding to the className
-            Class<?> clazz = Class.forName("bank." + className);  // Find the class by name
-
-            // Deserialize the INSTANCE data into the corresponding class object
-            return context.deserialize(instanceElement, clazz);
-        } catch (ClassNotFoundException e) {
+    private static final Map<String, Supplier<Transaction>> REGISTRY = Map.of(
+            "Payment", Payment::new,
+            "Transfer", Transfer::new,
+            "IncomingTransfer", IncomingTransfer::new,
+            "OutgoingTransfer", OutgoingTransfer::new);
 
-            throw new JsonParseException("Class not found: " + className, e);
+    /**
+     * schreibt eine Transaktion als {"CLASSNAME":...,"INSTANCE":{...}}
+     *
+     * @param out         der JsonWriter
+     * @param transaction die Transaktion
+     * @throws IOException if an output-related problem occurs
+     */
+    @Override
+    public void write(JsonWriter out, Transaction transaction) throws IOException {
+        if (transaction == null) {
+            out.nullValue();
+            return;
         }
+        out.beginObject();
+        writeFields(out, transaction);
+        out.endObject();
     }
 
-
-
     /**
-     * @param transaction
-     * @param type
-     * @param jsonSerializationContext
-     * @return
+     * liest eine Transaktion im Format {"CLASSNAME":...,"INSTANCE":{...}}. Unbekannte Felder werden übersprungen.
+     *
+     * @param in der JsonReader
+     * @return die gelesene Transaktion
+     * @throws IOException if an input-related problem occurs
      */
     @Override
-    public JsonElement serialize(Transaction transaction, Type type, JsonSerializationContext jsonSerializationContext) {
+    public Transaction read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String className = null;
+        String bufferedInstance = null;
+        Transaction transaction = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (name.equals("CLASSNAME")) {
+                className = in.nextString();
+            } else if (name.equals("INSTANCE") && className != null) {
+                transaction = readInstance(in, className);
+            } else if (name.equals("INSTANCE")) {
+                // INSTANCE vor CLASSNAME kommt in eigenen Dateien nicht vor, wird aber trotzdem gelesen
+                bufferedInstance = JsonParser.parseReader(in).toString();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        if (transaction == null && bufferedInstance != null && className != null) {
+            transaction = readInstance(new JsonReader(new StringReader(bufferedInstance)), className);
+        }
+        if (transaction == null) {
+            throw new JsonParseException("Transaction without CLASSNAME or INSTANCE at " + in.getPath());
+        }
+        return transaction;
+    }
 
-        JsonObject jsonObject = new JsonObject();
-        Gson gson = new Gson(); // Default Gson instance
-        JsonElement transactionElement = gson.toJsonTree(transaction);
+    /**
+     * schreibt die Felder CLASSNAME und INSTANCE in ein schon geöffnetes Objekt
+     *
+     * @param out         der JsonWriter
+     * @param transaction die Transaktion
+     * @throws IOException if an output-related problem occurs
+     */
+    void writeFields(JsonWriter out, Transaction transaction) throws IOException {
+        out.name("CLASSNAME").value(transaction.getClass().getSimpleName());
+        out.name("INSTANCE");
+        out.beginObject();
+        if (transaction instanceof Payment payment) {
+            out.name("incomingInterest").value(payment.getIncomingInterest());
+            out.name("outgoingInterest").value(payment.getOutgoingInterest());
+        } else if (transaction instanceof Transfer transfer) {
+            writeString(out, "sender", transfer.getSender());
+            writeString(out, "recipient", transfer.getRecipient());
+        }
+        writeString(out, "date", transaction.date);
+        out.name("amount").value(transaction.amount);
+        writeString(out, "description", transaction.description);
+        out.endObject();
+    }
 
-        //String className = transaction.getClass().getSimpleName(); // Get simple class name
-        //String formattedClassName = className.replaceAll("([a-z])([A-Z])", "$1 $2");
+    /**
+     * liest den Inhalt von INSTANCE für die angegebene Klasse
+     *
+     * @param in        der JsonReader, der vor dem INSTANCE-Objekt steht
+     * @param className der Wert von CLASSNAME
+     * @return die gelesene Transaktion
+     * @throws IOException if an input-related problem occurs
+     */
+    Transaction readInstance(JsonReader in, String className) throws IOException {
+        Supplier<Transaction> factory = className == null ? null : REGISTRY.get(className);
+        if (factory == null) {
+            throw new JsonParseException("Class not found: " + className);
+        }
+        Transaction transaction = factory.get();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "date" -> transaction.date = in.nextString();
+                case "amount" -> transaction.amount = in.nextDouble();
+                case "description" -> transaction.description = in.nextString();
+                case "incomingInterest" -> {
+                    if (transaction instanceof Payment payment) {
+                        setInterest(payment, in.nextDouble(), true);
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                case "outgoingInterest" -> {
+                    if (transaction instanceof Payment payment) {
+                        setInterest(payment, in.nextDouble(), false);
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                case "sender" -> {
+                    if (transaction instanceof Transfer transfer) {
+                        transfer.setSender(in.nextString());
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                case "recipient" -> {
+                    if (transaction instanceof Transfer transfer) {
+                        transfer.setRecipient(in.nextString());
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return transaction;
+    }
 
-        jsonObject.addProperty("CLASSNAME", transaction.getClass().getSimpleName());
-        jsonObject.add("INSTANCE", transactionElement);
+    private static void setInterest(Payment payment, double interest, boolean incoming) {
+        try {
+            if (incoming) {
+                payment.setIncomingInterest(interest);
+            } else {
+                payment.setOutgoingInterest(interest);
+            }
+        } catch (IllegalStateException e) {
+            throw new JsonParseException("Invalid interest: " + interest, e);
+        }
+    }
 
-        return jsonObject;
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
     }
 }
@@ -0,0 +1,131 @@
+package bank;
+
+import java.util.List;
+
+/**
+ * speichert die Transaktionen eines Kontos in der Reihenfolge, in der sie hinzugefügt wurden, ohne Duplikate nach
+ * {@link Transaction#equals(Object)}. Beträge werden wie bei {@link Transaction#calculateMinor()} in Tausendsteln
+ * ({@link Money}) summiert. Wie die Transaktionen abgelegt sind, entscheidet die Implementierung, siehe
+ * {@link AccountLayout}. Ein Konto mit einer {@link RateTable} berechnet alle Payments mit deren Zinsen und nach
+ * einer Änderung der Tabelle alle Kontostände bei der nächsten Abfrage neu.
+ */
+public interface TransactionStore {
+
+    /**
+     * prüft, ob die Transaktion schon im Konto ist
+     *
+     * @param transaction die gesuchte Transaktion
+     * @return true, wenn eine gleiche Transaktion existiert
+     */
+    boolean contains(Transaction transaction);
+
+    /**
+     * fügt eine Transaktion am Ende hinzu
+     *
+     * @param transaction die Transaktion
+     * @return false, wenn eine gleiche Transaktion schon existiert
+     */
+    boolean add(Transaction transaction);
+
+    /**
+     * entfernt eine Transaktion
+     *
+     * @param transaction die Transaktion
+     * @return false, wenn es keine gleiche Transaktion gibt
+     */
+    boolean remove(Transaction transaction);
+
+    /**
+     * gibt die Anzahl der Transaktionen zurück
+     *
+     * @return die Anzahl
+     */
+    int size();
+
+    /**
+     * gibt die Transaktionen in ihrer Reihenfolge als unveränderliche Liste zurück
+     *
+     * @return die Transaktionen
+     */
+    List<Transaction> asList();
+
+    /**
+     * gibt den Kontostand in Tausendsteln zurück: die exakte Summe der auf drei Nachkommastellen gerundeten Beträge
+     *
+     * @return der Kontostand in Tausendsteln
+     */
+    long balanceMinor();
+
+    /**
+     * gibt den Kontostand {@link #balanceMinor()} als double zurück
+     *
+     * @return der Kontostand
+     */
+    default double balance() {
+        return Money.toDouble(balanceMinor());
+    }
+
+    /**
+     * gibt die Transaktionen nach berechnetem Betrag sortiert als unveränderliche Liste zurück. Bei gleichem Betrag
+     * bleibt in beiden Richtungen die Einfügereihenfolge erhalten.
+     *
+     * @param asc true für aufsteigend, false für absteigend
+     * @return die sortierten Transaktionen
+     */
+    List<Transaction> sorted(boolean asc);
+
+    /**
+     * gibt die Transaktionen mit positivem oder negativem berechneten Betrag in Einfügereihenfolge als
+     * unveränderliche Liste zurück
+     *
+     * @param positive true für Beträge größer 0, false für Beträge kleiner 0
+     * @return die Transaktionen
+     */
+    List<Transaction> byType(boolean positive);
+
+    /**
+     * gibt die Anzahl der Transaktionen mit positivem oder negativem berechneten Betrag zurück
+     *
+     * @param positive true für Beträge größer 0, false für Beträge kleiner 0
+     * @return die Anzahl
+     */
+    int countByType(boolean positive);
+
+    /**
+     * gibt die Summe der positiven oder negativen berechneten Beträge in Tausendsteln zurück
+     *
+     * @param positive true für Beträge größer 0, false für Beträge kleiner 0
+     * @return die Summe in Tausendsteln
+     */
+    long sumByTypeMinor(boolean positive);
+
+    /**
+     * gibt die k betragsmäßig größten Gutschriften (positive) bzw. Belastungen (negative) zurück, die größte zuerst und
+     * bei gleichem Betrag in Einfügereihenfolge
+     *
+     * @param k        wie viele Transaktionen höchstens zurückgegeben werden
+     * @param positive true für Gutschriften, false für Belastungen
+     * @return die Transaktionen
+     * @throws IllegalArgumentException wenn k negativ ist
+     */
+    List<Transaction> top(int k, boolean positive);
+
+    /**
+     * gibt die Transaktionen eines Zeitraums nach Datum sortiert zurück, bei gleichem Datum in Einfügereihenfolge.
+     * Transaktionen mit unbekanntem Datumsformat sind nie enthalten.
+     *
+     * @param from Beginn in Sekunden seit dem 01.01.1970, einschließlich
+     * @param to   Ende in Sekunden seit dem 01.01.1970, ausschließlich
+     * @return die Transaktionen, nicht veränderbar
+     */
+    List<Transaction> between(long from, long to);
+
+    /**
+     * gibt den Kontostand zu einem Zeitpunkt in Tausendsteln zurück: die Summe aller Transaktionen, deren Datum nicht
+     * später ist. Transaktionen mit unbekanntem Datumsformat zählen nicht mit.
+     *
+     * @param second der Zeitpunkt in Sekunden seit dem 01.01.1970, einschließlich
+     * @return der Kontostand in Tausendsteln
+     */
+    long balanceAsOfMinor(long second);
+}
@@ -2,8 +2,6 @@ package bank;
 
 import bank.exceptions.InvalidAttributeException;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Objects;
 
 /**
@@ -138,16 +136,23 @@ public class Transfer extends Transaction implements CalculateBill {
     }
 
     /**
-     * gibt den Wert von amount zurück, wie es ist, weil es keine Zinsen geben
+     * gibt den Wert von amount zurück, wie es ist, weil es keine Zinsen geben, auf drei Nachkommastellen gerundet
      *
      * @return den Wert von amount
      */
     @Override
     public double calculate() {
-        BigDecimal bigDecimalValue = new BigDecimal(amount);
-        bigDecimalValue = bigDecimalValue.setScale(3, RoundingMode.HALF_UP);
-        return bigDecimalValue.doubleValue();
+        return Money.round(amount);
+    }
 
+    /**
+     * gibt den Wert von amount in Tausendsteln zurück, ohne BigDecimal zu erzeugen
+     *
+     * @return den Wert von amount in Tausendsteln
+     */
+    @Override
+    public long calculateMinor() {
+        return Money.of(amount);
     }
 
 
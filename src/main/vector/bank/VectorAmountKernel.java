@@ -0,0 +1,85 @@
+package bank;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link AmountKernel} mit der Vector API. Wird nur mit dem Maven-Profil "vector" kompiliert und braucht zur Laufzeit
+ * {@code --add-modules jdk.incubator.vector}. Die Rundung aus {@link Money#of(double)} wird Spur für Spur genauso
+ * gerechnet, die Ergebnisse sind deshalb gleich wie bei {@link ScalarAmountKernel}. Reste am Ende und Blöcke mit
+ * Beträgen ab {@link #LIMIT} gehen an die einfache Schleife.
+ */
+public class VectorAmountKernel extends ScalarAmountKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = VectorSpecies.of(long.class, DOUBLES.vectorShape());
+    /**
+     * bis hierher liegen die Beträge in Tausendsteln unter 2^51 und lassen sich ohne Umwandlungsbefehle runden und in
+     * long umrechnen, die nicht jede CPU als Vektorbefehl hat
+     */
+    private static final double LIMIT = (double) (1L << 51) / Money.UNIT;
+    /**
+     * x + 2^52 - 2^52 rundet ein x zwischen 0 und 2^52 auf eine ganze Zahl
+     */
+    private static final double ROUND = 0x1p52;
+    /**
+     * eine ganze Zahl x mit |x| unter 2^51 steht in den Bits von x + 1.5 * 2^52 direkt als long
+     */
+    private static final double SHIFT = 0x1.8p52;
+    private static final long SHIFT_BITS = Double.doubleToRawLongBits(SHIFT);
+
+    @Override
+    public void calculateMinor(double[] amounts, int from, int to, double incomingInterest, double outgoingInterest,
+                               long[] result) {
+        DoubleVector unit = DoubleVector.broadcast(DOUBLES, Money.UNIT);
+        double credit = 1.0 - incomingInterest;
+        double debit = 1.0 + outgoingInterest;
+        int i = from;
+        for (int end = from + DOUBLES.loopBound(to - from); i < end; i += DOUBLES.length()) {
+            DoubleVector amount = DoubleVector.fromArray(DOUBLES, amounts, i);
+            VectorMask<Double> negative = amount.compare(VectorOperators.LT, 0);
+            DoubleVector value = amount.mul(DoubleVector.broadcast(DOUBLES, credit).blend(debit, negative));
+            DoubleVector magnitude = value.abs();
+            if (!magnitude.compare(VectorOperators.LT, LIMIT).allTrue()) {
+                super.calculateMinor(amounts, i, i + DOUBLES.length(), incomingInterest, outgoingInterest, result);
+                continue;
+            }
+            // zur nächsten ganzen Zahl gerundet, die Korrekturen wie in Money.of machen daraus die exakte Untergrenze
+            DoubleVector floor = magnitude.mul(unit).add(ROUND).sub(ROUND);
+            floor = floor.sub(1.0, magnitude.fma(unit, floor.neg()).compare(VectorOperators.LT, 0));
+            floor = floor.add(1.0, magnitude.fma(unit, floor.add(1.0).neg()).compare(VectorOperators.GE, 0));
+            floor = floor.add(1.0, magnitude.fma(unit, floor.add(0.5).neg()).compare(VectorOperators.GE, 0));
+            DoubleVector rounded = floor.blend(floor.neg(), value.compare(VectorOperators.LT, 0));
+            rounded.add(SHIFT).reinterpretAsLongs().sub(SHIFT_BITS).intoArray(result, i);
+        }
+        super.calculateMinor(amounts, i, to, incomingInterest, outgoingInterest, result);
+    }
+
+    @Override
+    public Totals totals(long[] minor, int from, int to) {
+        LongVector sum = LongVector.zero(LONGS);
+        LongVector positiveSum = LongVector.zero(LONGS);
+        LongVector negativeSum = LongVector.zero(LONGS);
+        int positiveCount = 0;
+        int negativeCount = 0;
+        int i = from;
+        for (int end = from + LONGS.loopBound(to - from); i < end; i += LONGS.length()) {
+            LongVector amount = LongVector.fromArray(LONGS, minor, i);
+            VectorMask<Long> positive = amount.compare(VectorOperators.GT, 0);
+            VectorMask<Long> negative = amount.compare(VectorOperators.LT, 0);
+            sum = sum.add(amount);
+            positiveSum = positiveSum.add(amount, positive);
+            negativeSum = negativeSum.add(amount, negative);
+            positiveCount += positive.trueCount();
+            negativeCount += negative.trueCount();
+        }
+        Totals rest = super.totals(minor, i, to);
+        return new Totals(sum.reduceLanes(VectorOperators.ADD) + rest.sum(),
+                positiveSum.reduceLanes(VectorOperators.ADD) + rest.positiveSum(),
+                negativeSum.reduceLanes(VectorOperators.ADD) + rest.negativeSum(),
+                positiveCount + rest.positiveCount(), negativeCount + rest.negativeCount());
+    }
+}
@@ -0,0 +1,58 @@
+package bank;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountIdsTest {
+
+    @Test
+    void testIdsAreStableAndReused() {
+        AccountIds ids = new AccountIds();
+        assertEquals(AccountIds.ABSENT, ids.find("Bob"));
+        int bob = ids.add("Bob");
+        int alice = ids.add("Alice");
+        assertEquals(bob, ids.add(new String("Bob")));
+        assertEquals(alice, ids.find("Alice"));
+        assertEquals("Bob", ids.name(bob));
+
+        ids.remove(bob);
+        assertEquals(AccountIds.ABSENT, ids.find("Bob"));
+        assertNull(ids.name(bob));
+        int carol = ids.add("Carol");
+        assertEquals(bob, carol);
+        assertEquals("Carol", ids.name(carol));
+        assertEquals(alice, ids.find("Alice"));
+        assertEquals(2, ids.ids().length);
+
+        // wiederholtes Anlegen und Löschen vergibt immer wieder dieselbe Nummer
+        for (int i = 0; i < 1000; i++) {
+            int temp = ids.add("Temp " + i);
+            assertEquals(2, temp);
+            ids.remove(temp);
+        }
+        assertArrayEquals(new int[]{carol, alice}, ids.ids());
+    }
+
+    @Test
+    void testOrder() {
+        AccountIds ids = new AccountIds();
+        for (int i = 0; i < 40; i++) {
+            ids.add("Konto " + (char) ('z' - i % 26) + i);
+        }
+        ids.remove(ids.find("Konto z0"));
+        assertEquals(39, ids.ids().length);
+        assertEquals("Konto y1", ids.names().get(0));
+
+        List<String> names = ids.names();
+        int[] byName = ids.idsByName();
+        String previous = "";
+        for (int id : byName) {
+            assertTrue(names.contains(ids.name(id)));
+            assertTrue(previous.compareTo(ids.name(id)) < 0);
+            previous = ids.name(id);
+        }
+    }
+}
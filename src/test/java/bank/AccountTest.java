@@ -0,0 +1,190 @@
+package bank;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountTest {
+
+    @Test
+    void testInsertionOrderAndDuplicates() {
+        Account account = new Account();
+        Payment salary = new Payment("2024-01-01", 100, "Salary", 0.05, 0.1);
+        Transfer gift = new Transfer("2024-01-02", 30, "Gift", "Bob", "Alice");
+        Payment rent = new Payment("2024-01-03", -50, "Rent", 0.05, 0.1);
+        assertTrue(account.add(salary));
+        assertTrue(account.add(gift));
+        assertTrue(account.add(rent));
+        assertFalse(account.add(new Payment("2024-01-01", 100, "Salary", 0.05, 0.1)));
+
+        assertEquals(List.of(salary, gift, rent), account.asList());
+        assertTrue(account.contains(new Transfer("2024-01-02", 30, "Gift", "Bob", "Alice")));
+
+        assertTrue(account.remove(gift));
+        assertFalse(account.remove(gift));
+        assertEquals(List.of(salary, rent), account.asList());
+        assertThrows(UnsupportedOperationException.class, () -> account.asList().add(gift));
+    }
+
+    @Test
+    void testReindexAfterInterestChange() {
+        Payment salary = new Payment("2024-01-01", 100, "Salary", 0.05, 0.1);
+        Account account = new Account(List.of(salary));
+        salary.setIncomingInterest(0.2);
+        account.reindex();
+        assertTrue(account.contains(new Payment("2024-01-01", 100, "Salary", 0.2, 0.1)));
+        assertTrue(account.remove(salary));
+        assertEquals(0, account.size());
+    }
+
+    @Test
+    void testRemoveAfterOwnInterestWithoutReindex() {
+        Account account = new Account(new RateTable(0.1, 0.1));
+        Payment salary = new Payment("01.11.2024", 500, "Gehalt");
+        account.add(salary);
+        account.add(new Payment("02.11.2024", -100, "Miete"));
+        salary.setIncomingInterest(0);
+
+        assertTrue(account.remove(salary));
+        assertEquals(-110_000, account.balanceMinor());
+        assertEquals(0, account.countByType(true));
+        assertEquals(0, account.sumByTypeMinor(true));
+        assertTrue(account.remove(new Payment("02.11.2024", -100, "Miete")));
+        assertEquals(0, account.balanceMinor());
+        assertEquals(0, account.sumByTypeMinor(false));
+    }
+
+    @Test
+    void testRunningBalanceMatchesFullSum() {
+        Account account = new Account();
+        Random random = new Random(42);
+        List<Transaction> added = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Transaction transaction = i % 3 == 0
+                    ? new Transfer("2024-01-01", random.nextInt(100_000) / 100.0, "Transfer " + i, "Bob", "Alice")
+                    : new Payment("2024-01-01", random.nextInt(200_000) / 100.0 - 1000, "Payment " + i, 0.05, 0.1);
+            account.add(transaction);
+            added.add(transaction);
+            if (i % 10 == 0) {
+                assertEquals(fullSum(added), account.balance());
+            }
+        }
+        account.remove(added.remove(17));
+        account.remove(added.remove(101));
+        assertEquals(fullSum(added), account.balance());
+        assertEquals(0.0, new Account().balance());
+    }
+
+    @Test
+    void testSortedIndex() {
+        Payment salary = new Payment("2024-01-01", 100, "Salary", 0.05, 0.1);
+        Payment rent = new Payment("2024-01-02", -50, "Rent", 0.05, 0.1);
+        Transfer gift = new Transfer("2024-01-03", 95, "Gift", "Bob", "Alice");
+        OutgoingTransfer loan = new OutgoingTransfer("2024-01-04", 200, "Loan", "Alice", "Bob");
+        Account account = new Account(List.of(salary, rent, gift, loan));
+
+        // gleiche Beträge (salary und gift) bleiben in beiden Richtungen in Einfügereihenfolge
+        assertEquals(List.of(loan, rent, salary, gift), account.sorted(true));
+        assertEquals(List.of(salary, gift, rent, loan), account.sorted(false));
+
+        Transfer bonus = new Transfer("2024-01-05", 10, "Bonus", "Bob", "Alice");
+        account.add(bonus);
+        account.remove(rent);
+        assertEquals(List.of(loan, bonus, salary, gift), account.sorted(true));
+        assertEquals(List.of(salary, gift, bonus, loan), account.sorted(false));
+        assertEquals(List.of(salary, gift, loan, bonus), account.asList());
+    }
+
+    @Test
+    void testPartitions() {
+        Payment salary = new Payment("2024-01-01", 100, "Salary", 0.05, 0.1);
+        Payment rent = new Payment("2024-01-02", -50, "Rent", 0.05, 0.1);
+        Transfer gift = new Transfer("2024-01-03", 30, "Gift", "Bob", "Alice");
+        OutgoingTransfer loan = new OutgoingTransfer("2024-01-04", 200, "Loan", "Alice", "Bob");
+        Transfer nothing = new Transfer("2024-01-05", 0, "Nothing", "Bob", "Alice");
+        Account account = new Account(List.of(salary, rent, gift, loan, nothing));
+
+        assertEquals(List.of(salary, gift), account.byType(true));
+        assertEquals(List.of(rent, loan), account.byType(false));
+        assertEquals(2, account.countByType(true));
+        assertEquals(125_000, account.sumByTypeMinor(true));
+        assertEquals(-255_000, account.sumByTypeMinor(false));
+
+        account.remove(gift);
+        account.add(new Payment("2024-01-06", -10, "Fee", 0.05, 0.1));
+        assertEquals(List.of(salary), account.byType(true));
+        assertEquals(3, account.countByType(false));
+        assertEquals(-266_000, account.sumByTypeMinor(false));
+        assertEquals(account.balanceMinor(), account.sumByTypeMinor(true) + account.sumByTypeMinor(false));
+    }
+
+    @Test
+    void testTopMatchesSortedIndex() {
+        Random random = new Random(3);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // wenige verschiedene Beträge, damit es viele gleiche gibt
+            double amount = random.nextInt(40) - 20;
+            transactions.add(new Payment("2024-01-01", amount, "Payment " + i, 0.05, 0.1));
+        }
+        Account heap = new Account(transactions);
+        Account index = new Account(transactions);
+        index.sorted(true);
+        for (int k : new int[]{0, 1, 5, 20, 1000}) {
+            assertEquals(index.top(k, true), heap.top(k, true), "k=" + k);
+            assertEquals(index.top(k, false), heap.top(k, false), "k=" + k);
+        }
+        List<Transaction> debits = heap.top(20, false);
+        assertEquals(20, debits.size());
+        assertEquals(index.sorted(true).subList(0, 20), debits);
+        assertThrows(IllegalArgumentException.class, () -> heap.top(-1, true));
+    }
+
+    @Test
+    void testBalanceAsOfMatchesFullScan() {
+        Random random = new Random(7);
+        Account account = new Account();
+        List<Transaction> added = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String date = String.format("%02d.%02d.2024", 1 + random.nextInt(28), 1 + random.nextInt(12));
+            Transaction transaction = i % 4 == 0
+                    ? new Transfer(date, random.nextInt(10_000) / 100.0, "Transfer " + i, "Bob", "Alice")
+                    : new Payment(date, random.nextInt(20_000) / 100.0 - 100, "Payment " + i, 0.05, 0.1);
+            account.add(transaction);
+            added.add(transaction);
+            if (i % 50 == 49) {
+                account.remove(added.remove(random.nextInt(added.size())));
+                for (int query = 0; query < 20; query++) {
+                    long second = TransactionDate.parse("01.01.2024") + random.nextInt(400) * 86_400L - 1;
+                    long expected = 0;
+                    for (Transaction candidate : added) {
+                        if (candidate.getEpochSecond() <= second) {
+                            expected += candidate.calculateMinor();
+                        }
+                    }
+                    assertEquals(expected, account.balanceAsOfMinor(second));
+                }
+            }
+        }
+        account.add(new Payment("unbekannt", 100, "Unknown", 0.05, 0.1));
+        assertEquals(account.balanceMinor() - 95_000, account.balanceAsOfMinor(Long.MAX_VALUE));
+        assertEquals(0, new Account().balanceAsOfMinor(0));
+    }
+
+    /**
+     * die Summe der auf drei Nachkommastellen gerundeten Beträge, bei jeder Abfrage über alle Transaktionen gebildet
+     */
+    private static double fullSum(List<Transaction> transactions) {
+        BigDecimal amount = BigDecimal.ZERO;
+        for (Transaction transaction : transactions) {
+            amount = amount.add(new BigDecimal(transaction.calculate()).setScale(3, RoundingMode.HALF_UP));
+        }
+        return amount.doubleValue();
+    }
+}
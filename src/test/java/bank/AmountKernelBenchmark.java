@@ -0,0 +1,45 @@
+package bank;
+
+import java.util.Random;
+
+/**
+ * vergleicht {@link ScalarAmountKernel} mit der Implementierung aus {@link AmountKernel#get()}. Kein Test, wird von
+ * Hand gestartet, für die Vector API mit dem Profil "vector":
+ * <pre>
+ * mvn -Pvector test-compile
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes bank.AmountKernelBenchmark
+ * </pre>
+ */
+public class AmountKernelBenchmark {
+
+    private static final int SIZE = 10_000_000;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        double[] amounts = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            amounts[i] = (random.nextInt(2_000_000) - 1_000_000) / 100.0;
+        }
+        long[] minor = new long[SIZE];
+        AmountKernel scalar = new ScalarAmountKernel();
+        AmountKernel preferred = AmountKernel.get();
+        System.out.println("Kernel: " + preferred.getClass().getSimpleName() + ", " + SIZE + " Beträge");
+        for (AmountKernel kernel : new AmountKernel[]{scalar, preferred, scalar, preferred}) {
+            long calculate = Long.MAX_VALUE;
+            long totals = Long.MAX_VALUE;
+            long check = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                kernel.calculateMinor(amounts, 0, SIZE, 0.05, 0.1, minor);
+                long middle = System.nanoTime();
+                check += kernel.totals(minor, 0, SIZE).sum();
+                long end = System.nanoTime();
+                calculate = Math.min(calculate, middle - start);
+                totals = Math.min(totals, end - middle);
+            }
+            System.out.printf("%-20s calculateMinor %7.2f ms, totals %6.2f ms (Summe %d)%n",
+                    kernel.getClass().getSimpleName(), calculate / 1e6, totals / 1e6, check / ROUNDS);
+        }
+    }
+}
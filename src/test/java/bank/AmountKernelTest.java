@@ -0,0 +1,52 @@
+package bank;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmountKernelTest {
+
+    @Test
+    void testCalculateMinorMatchesPayment() {
+        Random random = new Random(5);
+        double[] amounts = new double[1003];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = switch (i % 4) {
+                // genau auf der Rundungsgrenze, vor und nach den Zinsen
+                case 0 -> (random.nextInt(2_000_000) - 1_000_000) / 1000.0 + 0.0005;
+                case 1 -> random.nextInt(2000) - 1000;
+                case 2 -> (random.nextDouble() - 0.5) * 1e9;
+                default -> i % 8 == 3 ? -0.0 : random.nextInt(100) / 100.0;
+            };
+        }
+        // ein Block mit sehr großen Beträgen
+        for (int i = 500; i < 520; i++) {
+            amounts[i] = 3e12 + i;
+        }
+        long[] result = new long[amounts.length];
+        AmountKernel.get().calculateMinor(amounts, 1, amounts.length, 0.05, 0.1, result);
+        assertEquals(0, result[0]);
+        for (int i = 1; i < amounts.length; i++) {
+            assertEquals(new Payment("01.01.2024", amounts[i], "Payment", 0.05, 0.1).calculateMinor(), result[i],
+                    "amount=" + amounts[i]);
+        }
+        assertThrows(ArithmeticException.class, () -> AmountKernel.get().calculateMinor(
+                new double[]{1, 2, 3, 4, 5, 6, 7, Double.NaN}, 0, 8, 0.05, 0.1, new long[8]));
+    }
+
+    @Test
+    void testTotals() {
+        Random random = new Random(9);
+        long[] minor = new long[517];
+        for (int i = 0; i < minor.length; i++) {
+            minor[i] = i % 10 == 0 ? 0 : random.nextInt(2_000_000) - 1_000_000;
+        }
+        for (int from : new int[]{0, 3}) {
+            assertEquals(new ScalarAmountKernel().totals(minor, from, minor.length),
+                    AmountKernel.get().totals(minor, from, minor.length));
+        }
+        assertEquals(new AmountKernel.Totals(0, 0, 0, 0, 0), AmountKernel.get().totals(minor, 5, 5));
+    }
+}
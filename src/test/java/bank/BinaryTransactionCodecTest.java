@@ -0,0 +1,107 @@
+package bank;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryTransactionCodecTest {
+
+    private final BinaryTransactionCodec codec = new BinaryTransactionCodec();
+
+    private final List<Transaction> transactions = List.of(
+            new Payment("2024-01-01", -50, "Miete", 0.05, 0.1),
+            new Transfer("2024-01-02", 30, null, "Alice", "Bob"),
+            new IncomingTransfer("2024-01-03", 40, "Geschenk", "Carol", "Bob"),
+            new OutgoingTransfer("2024-01-04", 10, "Pizza", "Bob", "Dave"));
+
+    @Test
+    void testRoundTrip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.writeAll(out, transactions);
+
+        List<Transaction> read = new ArrayList<>();
+        codec.readAll(new ByteArrayInputStream(out.toByteArray()), read::add);
+        assertEquals(transactions, read);
+        for (int i = 0; i < transactions.size(); i++) {
+            assertSame(transactions.get(i).getClass(), read.get(i).getClass());
+        }
+    }
+
+    @Test
+    void testRepeatedStringsAreWrittenOnce() throws IOException {
+        List<Transaction> repeated = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            repeated.add(new OutgoingTransfer("2024-01-01", i, "Stromrechnung", "Bob", "Stadtwerke"));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.writeAll(out, repeated);
+        // ab der zweiten Transaktion sind alle Strings Verweise mit 4 Byte
+        assertEquals(5 + (1 + 4 + 10 + 8 + 4 + 13 + 4 + 3 + 4 + 10) + 99 * (1 + 4 + 8 + 4 + 4 + 4), out.size());
+
+        List<Transaction> read = new ArrayList<>();
+        codec.readAll(new ByteArrayInputStream(out.toByteArray()), read::add);
+        assertEquals(repeated, read);
+        assertSame(read.get(0).getDescription(), read.get(99).getDescription());
+        assertSame(((Transfer) read.get(0)).getRecipient(), ((Transfer) read.get(99)).getRecipient());
+    }
+
+    @Test
+    void testReadsVersion1() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(BinaryTransactionCodec.MAGIC);
+        out.writeByte(1);
+        for (Transaction transaction : transactions) {
+            codec.write(out, transaction);
+        }
+        List<Transaction> read = new ArrayList<>();
+        codec.readAll(new ByteArrayInputStream(bytes.toByteArray()), read::add);
+        assertEquals(transactions, read);
+    }
+
+    @Test
+    void testRejectsOtherFiles() {
+        byte[] json = "[{\"CLASSNAME\":\"Payment\"}]".getBytes();
+        assertThrows(IOException.class, () -> codec.readAll(new ByteArrayInputStream(json), t -> {
+        }));
+    }
+
+    @Test
+    void testConvertDirectory(@TempDir Path directory) throws Exception {
+        PrivateBank bank = new PrivateBank("TempBank", 0.05, 0.1, directory.toString());
+        bank.createAccount("Bob", transactions);
+
+        assertEquals(1, AccountFileConverter.convertDirectory(directory, AccountFormat.BINARY));
+        assertFalse(Files.exists(directory.resolve("Konto Bob.json")));
+        assertTrue(Files.exists(directory.resolve("Konto Bob.bin")));
+        PrivateBank reloaded = new PrivateBank(bank);
+        assertEquals(bank.getTransactions("Bob"), reloaded.getTransactions("Bob"));
+
+        AccountFileConverter.convert(directory.resolve("Konto Bob.bin"), directory.resolve("Konto Copy.json"));
+        assertEquals(bank.getTransactions("Bob"), new PrivateBank(bank).getTransactions("Copy"));
+    }
+
+    @Test
+    void testBankWritesBinary(@TempDir Path directory) throws Exception {
+        PrivateBank bank = new PrivateBank("TempBank", 0.05, 0.1, directory.toString());
+        bank.setAccountFormat(AccountFormat.BINARY);
+        bank.createAccount("Bob", transactions);
+
+        assertTrue(Files.exists(directory.resolve("Konto Bob.bin")));
+        assertFalse(Files.exists(directory.resolve("Konto Bob.json")));
+        assertEquals(bank.getAccountBalance("Bob"), new PrivateBank(bank).getAccountBalance("Bob"));
+
+        bank.deleteAccount("Bob");
+        assertFalse(Files.exists(directory.resolve("Konto Bob.bin")));
+    }
+}
@@ -0,0 +1,146 @@
+package bank;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarAccountTest {
+
+    @Test
+    void testMatchesObjectStore() {
+        RateTable rates = new RateTable(0.05, 0.1);
+        assertMatchesObjectStore(new Account(rates), new ColumnarAccount(new StringDictionary(), rates), rates);
+    }
+
+    @Test
+    void testMatchesObjectStoreWithOwnInterest() {
+        assertMatchesObjectStore(new Account(), new ColumnarAccount(), null);
+    }
+
+    /**
+     * führt dieselben zufälligen Änderungen auf beiden Konten aus, mit einer Zinstabelle auch neue Zinsen
+     */
+    private static void assertMatchesObjectStore(Account objects, ColumnarAccount columns, RateTable rates) {
+        Random random = new Random(11);
+        List<Transaction> added = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 6 || added.isEmpty()) {
+                Transaction transaction = randomTransaction(random);
+                assertEquals(objects.add(transaction), columns.add(transaction));
+                added.add(transaction);
+            } else if (operation < 9) {
+                Transaction transaction = added.get(random.nextInt(added.size()));
+                assertEquals(objects.remove(transaction), columns.remove(transaction));
+            } else if (rates != null) {
+                rates.setIncomingInterest(random.nextInt(3) / 10.0);
+                rates.setOutgoingInterest(random.nextInt(3) / 10.0);
+            }
+            if (i % 100 == 99) {
+                assertSameContent(objects, columns);
+            }
+        }
+        assertSameContent(objects, columns);
+    }
+
+    @Test
+    void testDuplicatesAcrossTransferTypes() {
+        ColumnarAccount account = new ColumnarAccount();
+        assertTrue(account.add(new Transfer("01.01.2024", 30, "Gift", "Bob", "Alice")));
+        // Transfer.equals vergleicht nur die Attribute, nicht die Art der Überweisung
+        assertFalse(account.add(new IncomingTransfer("01.01.2024", 30, "Gift", "Bob", "Alice")));
+        assertTrue(account.add(new Payment("01.01.2024", 30, "Gift", 0.05, 0.1)));
+        // die Zinsen gehören nicht zur Gleichheit eines Payments
+        assertFalse(account.add(new Payment("01.01.2024", 30, "Gift", 0.1, 0.1)));
+        assertTrue(account.contains(new Payment("01.01.2024", 30, "Gift", 0.05, 0.2)));
+        assertFalse(account.contains(new Transfer("01.01.2024", 30, "Gift", "Bob", "Carol")));
+        assertTrue(account.contains(new OutgoingTransfer("01.01.2024", 30, "Gift", "Bob", "Alice")));
+        assertEquals(58_500, account.balanceMinor());
+        assertEquals(List.of(new Transfer("01.01.2024", 30, "Gift", "Bob", "Alice"),
+                new Payment("01.01.2024", 30, "Gift", 0.05, 0.1)), account.asList());
+        assertEquals(account, new Account(account.asList()));
+    }
+
+    @Test
+    void testDatesStayOutOfSharedDictionary() {
+        StringDictionary dictionary = new StringDictionary();
+        ColumnarAccount account = new ColumnarAccount(dictionary);
+        List<Transaction> added = new ArrayList<>();
+        for (int day = 1; day <= 28; day++) {
+            Transaction transaction = new Payment(String.format("%02d.02.2024", day), day, "Salary", 0.05, 0.1);
+            account.add(transaction);
+            added.add(transaction);
+        }
+        assertEquals(1, dictionary.size());
+
+        // Aufräumen baut das Verzeichnis der Daten neu auf, Suche und Ausgabe bleiben gleich
+        for (int day = 1; day <= 20; day++) {
+            account.remove(added.get(day - 1));
+        }
+        for (int day = 1; day <= 20; day++) {
+            account.add(new Transfer(String.format("%02d.03.2024", day), day, "Gift", "Bob", "Alice"));
+        }
+        assertEquals(added.subList(20, 28), account.asList().subList(0, 8));
+        assertTrue(account.contains(new Payment("28.02.2024", 28, "Salary", 0.05, 0.1)));
+        assertFalse(account.contains(new Payment("01.02.2024", 1, "Salary", 0.05, 0.1)));
+        assertEquals(4, dictionary.size());
+    }
+
+    @Test
+    void testRateChangeIsAppliedOnNextQuery() {
+        RateTable rates = new RateTable(0.05, 0.1);
+        ColumnarAccount account = new ColumnarAccount(new StringDictionary(), rates);
+        account.add(new Payment("01.01.2024", 100, "Gehalt"));
+        account.add(new Payment("02.01.2024", -50, "Miete"));
+        account.add(new Payment("03.01.2024", 10, "Zinsen"));
+        account.remove(new Payment("03.01.2024", 10, "Zinsen"));
+        assertEquals(95_000 - 55_000, account.balanceMinor());
+
+        rates.setIncomingInterest(0.2);
+        rates.setOutgoingInterest(0);
+        assertEquals(80_000 - 50_000, account.balanceMinor());
+        assertEquals(80_000, account.sumByTypeMinor(true));
+        assertEquals(1, account.countByType(true));
+        Payment salary = (Payment) account.asList().get(0);
+        assertEquals(0.2, salary.getIncomingInterest());
+        assertEquals(80.0, salary.calculate());
+        assertEquals(30_000, account.balanceAsOfMinor(Long.MAX_VALUE));
+    }
+
+    private static void assertSameContent(Account objects, ColumnarAccount columns) {
+        assertEquals(objects.asList(), columns.asList());
+        assertEquals(objects.size(), columns.size());
+        assertEquals(objects.balanceMinor(), columns.balanceMinor());
+        for (boolean flag : new boolean[]{true, false}) {
+            assertEquals(objects.sorted(flag), columns.sorted(flag));
+            assertEquals(objects.byType(flag), columns.byType(flag));
+            assertEquals(objects.countByType(flag), columns.countByType(flag));
+            assertEquals(objects.sumByTypeMinor(flag), columns.sumByTypeMinor(flag));
+            assertEquals(objects.top(7, flag), columns.top(7, flag));
+        }
+        long start = TransactionDate.parse("01.03.2024");
+        long end = TransactionDate.parse("01.06.2024");
+        assertEquals(objects.between(start, end), columns.between(start, end));
+        assertThrows(UnsupportedOperationException.class, () -> columns.between(start, end).add(null));
+        assertEquals(objects.balanceAsOfMinor(end), columns.balanceAsOfMinor(end));
+        assertEquals(objects.balanceAsOfMinor(Long.MAX_VALUE), columns.balanceAsOfMinor(Long.MAX_VALUE));
+    }
+
+    private static Transaction randomTransaction(Random random) {
+        // wenige verschiedene Werte, damit es Duplikate und gleiche Beträge gibt
+        String date = random.nextInt(20) == 0 ? "unbekannt"
+                : String.format("%02d.%02d.2024", 1 + random.nextInt(28), 1 + random.nextInt(12));
+        String description = "Description " + random.nextInt(5);
+        double amount = random.nextInt(20) * 5;
+        return switch (random.nextInt(4)) {
+            case 0 -> new Payment(date, amount - 50, description, random.nextInt(2) / 10.0, 0.1);
+            case 1 -> new Transfer(date, amount, description, "Bob", "Alice");
+            case 2 -> new IncomingTransfer(date, amount, description, "Carol", "Alice");
+            default -> new OutgoingTransfer(date, amount, description, "Alice", "Bob");
+        };
+    }
+}
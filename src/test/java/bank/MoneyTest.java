@@ -0,0 +1,57 @@
+package bank;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testRoundsLikeBigDecimal() {
+        double[] values = {0.0, -0.0, 0.0005, -0.0005, 1.0005, 2.675, 1.2345, -1.2345, 0.0015, 1000.50, 95.0,
+                -55.00000000000001, 0.1 + 0.2, 123456789.1235, 4.35 * 100, 1e-9};
+        for (double value : values) {
+            assertEquals(expected(value), Money.of(value), "value " + value);
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            // genau auf halben Tausendsteln liegende Werte sind die kritischen Fälle
+            double value = i % 2 == 0
+                    ? (random.nextInt(2_000_000) - 1_000_000 + 0.5) / 1000.0
+                    : (random.nextDouble() - 0.5) * 1e7;
+            assertEquals(expected(value), Money.of(value), "value " + value);
+        }
+    }
+
+    @Test
+    void testToDouble() {
+        assertEquals(95.0, Money.toDouble(95_000));
+        assertEquals(-0.005, Money.toDouble(-5));
+        assertEquals(new BigDecimal("1.234").doubleValue(), Money.toDouble(1234));
+    }
+
+    @Test
+    void testOutOfRange() {
+        assertThrows(ArithmeticException.class, () -> Money.of(Double.NaN));
+        assertThrows(ArithmeticException.class, () -> Money.of(Double.POSITIVE_INFINITY));
+        assertThrows(ArithmeticException.class, () -> Money.of(1e16));
+    }
+
+    @Test
+    void testLargeAmountsRoundLikeBigDecimal() {
+        for (double value : new double[]{1e13, -1e13, 9_007_199_254_740.993, 123_456_789_012_345.67, 9e15}) {
+            assertEquals(expected(value), Money.of(value), "value " + value);
+            assertEquals(new BigDecimal(value).setScale(3, RoundingMode.HALF_UP).doubleValue(), Money.round(value));
+        }
+        assertEquals(new BigDecimal(1e300).setScale(3, RoundingMode.HALF_UP).doubleValue(), Money.round(1e300));
+        assertEquals(-1e13, new OutgoingTransfer("01.01.2024", 1e13, "Kredit", "Bob", "Alice").calculate());
+    }
+
+    private static long expected(double value) {
+        return new BigDecimal(value).setScale(3, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -56,6 +56,13 @@ public class PaymentTest {
         assertEquals(-110, payment.calculate(), 0.01); // Betrag zuzüglich outgoingInterest
     }
 
+    @Test
+    void testCalculateIsNotRounded() {
+        Payment small = new Payment("01.01.2024", 10.0004, "Rest", 0, 0);
+        assertEquals(10.0004, small.calculate());
+        assertEquals(10_000, small.calculateMinor());
+    }
+
     // Tests für setAmount()
     @Test
     void testSetAmount() {
@@ -123,9 +130,31 @@ public class PaymentTest {
     }
 
     @Test
-    void testNotEqualsDifferentInterest() throws InvalidAttributeException {
+    void testEqualsIgnoresInterest() throws InvalidAttributeException {
         Payment other = new Payment("01.01.2024", 100, "Salary; 100", 0.1, 0.2);
-        assertNotEquals(payment, other);
+        assertEquals(payment, other);
+        assertEquals(payment.hashCode(), other.hashCode());
+    }
+
+    @Test
+    void testRateTable() {
+        RateTable rates = new RateTable(0.2, 0.3);
+        payment.useRates(rates);
+        assertEquals(0.2, payment.getIncomingInterest());
+        assertEquals(80.0, payment.calculate());
+        int hash = payment.hashCode();
+
+        rates.setIncomingInterest(0.5);
+        assertEquals(50.0, payment.calculate());
+        assertEquals(hash, payment.hashCode());
+        assertThrows(IllegalArgumentException.class, () -> rates.setOutgoingInterest(1.5));
+        assertEquals(1, rates.getVersion());
+
+        // eigene Zinsen lösen das Payment von der Tabelle
+        payment.setOutgoingInterest(0.1);
+        rates.setIncomingInterest(0);
+        assertEquals(0.5, payment.getIncomingInterest());
+        assertEquals(50.0, payment.calculate());
     }
 
     @Test
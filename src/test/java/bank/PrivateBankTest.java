@@ -4,15 +4,25 @@ import bank.*;
 
 import bank.exceptions.*;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,6 +30,12 @@ import static org.junit.jupiter.api.Assertions.*;
 class PrivateBankTest {
 
     PrivateBank bank;
+    /**
+     * leerer Ordner je Test für Tests, die Dateien schreiben oder die Bank neu öffnen
+     */
+    @TempDir
+    Path directory;
+    PrivateBank tempBank;
 
     @BeforeEach
     void init() throws IOException {
@@ -27,7 +43,30 @@ class PrivateBankTest {
         if (!Files.exists(testDirectory)) {
             Files.createDirectory(testDirectory); // Create the directory if it doesn't exist
         }
+        deleteTestAccount();
         bank = new PrivateBank("TestBank", 0.05, 0.1, "testDirectory");
+        tempBank = openTempBank(false);
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        deleteTestAccount();
+    }
+
+    /**
+     * öffnet eine Bank auf dem temporären Ordner, z.B. um den gespeicherten Stand neu zu lesen
+     */
+    private PrivateBank openTempBank(boolean lazyLoading) {
+        return new PrivateBank("TempBank", 0.05, 0.1, directory.toString(), lazyLoading);
+    }
+
+    /**
+     * die Tests legen "Account Alice" jedes Mal neu an, deshalb darf kein Stand aus einem vorherigen Test übrig sein
+     */
+    private static void deleteTestAccount() throws IOException {
+        for (String extension : List.of(".json", ".bin", ".log")) {
+            Files.deleteIfExists(Paths.get("testDirectory", "Konto Account Alice" + extension));
+        }
     }
 
     @Test
@@ -244,10 +283,605 @@ class PrivateBankTest {
         });
     }
 
+    @Test
+    void testChangedFileIsReloaded() throws Exception {
+        tempBank.createAccount("Bob");
+        tempBank.addTransaction("Bob", new Payment("2024-01-01", 100, "Salary", 0.05, 0.1));
+        assertEquals(95.0, tempBank.getAccountBalance("Bob"));
+
+        Files.writeString(directory.resolve("Konto Bob.json"),
+                "[{\"CLASSNAME\":\"Transfer\",\"INSTANCE\":{\"sender\":\"A\",\"recipient\":\"Bob\",\"date\":\"2024-01-02\",\"amount\":250.0,\"description\":\"Gift\"}}]");
+        assertEquals(250.0, tempBank.getAccountBalance("Bob"));
+    }
+
+    @Test
+    void testConfiguredFormatWinsOverNewerFile() throws Exception {
+        tempBank.createAccount("Bob", List.of(new Payment("2024-01-01", 100, "Salary", 0.05, 0.1)));
+        // ein nach einem Absturz übrig gebliebener Stand im anderen Format, jünger als die JSON-Datei
+        Path bin = directory.resolve("Konto Bob.bin");
+        try (var out = Files.newOutputStream(bin)) {
+            AccountFormat.BINARY.write(out, List.of(new Transfer("2024-01-02", 250, "Gift", "A", "Bob")));
+        }
+        Files.setLastModifiedTime(bin, FileTime.from(Instant.now().plusSeconds(60)));
+
+        assertEquals(95.0, openTempBank(false).getAccountBalance("Bob"));
+        PrivateBank binaryBank = openTempBank(true);
+        binaryBank.setAccountFormat(AccountFormat.BINARY);
+        assertEquals(250.0, binaryBank.getAccountBalance("Bob"));
+    }
 
+    @Test
+    void testDuplicatesOnLoadAreCounted() throws Exception {
+        // eine alte Kontodatei mit zwei Payments, die sich nur in den eigenen Zinsen unterscheiden
+        Files.writeString(directory.resolve("Konto Bob.json"),
+                "[{\"CLASSNAME\":\"Payment\",\"INSTANCE\":{\"incomingInterest\":0.05,\"outgoingInterest\":0.1,\"date\":\"2024-01-01\",\"amount\":100.0,\"description\":\"Salary\"}},"
+                        + "{\"CLASSNAME\":\"Payment\",\"INSTANCE\":{\"incomingInterest\":0.2,\"outgoingInterest\":0.1,\"date\":\"2024-01-01\",\"amount\":100.0,\"description\":\"Salary\"}}]");
+        tempBank = openTempBank(false);
+        assertEquals(1, tempBank.getTransactions("Bob").size());
+        assertEquals(1, tempBank.getMergedDuplicates());
+        assertEquals(95.0, tempBank.getAccountBalance("Bob"));
+    }
 
+    @Test
+    void testCacheMode() throws Exception {
+        tempBank.createAccount("Bob");
+        tempBank.setCacheEnabled(true);
+        tempBank.addTransaction("Bob", new Payment("2024-01-01", 100, "Salary", 0.05, 0.1));
+        tempBank.addTransaction("Bob", new Payment("2024-01-02", -50, "Rent", 0.05, 0.1));
+
+        assertTrue(tempBank.isCacheEnabled());
+        assertEquals(40.0, tempBank.getAccountBalance("Bob"));
+        assertEquals(List.of("Bob"), tempBank.getAllAccounts());
+        assertEquals(2, new PrivateBank(tempBank).getTransactions("Bob").size());
+        tempBank.setCacheEnabled(false);
+        assertNull(tempBank.getLastFailure());
+    }
 
+    @Test
+    void testCacheModeWithoutWatchService() throws Exception {
+        tempBank = new PrivateBank("TempBank", 0.05, 0.1, directory.resolve("missing").toString());
+        // ein Ordner, den es noch nicht gibt, kann nicht beobachtet werden
+        tempBank.setCacheEnabled(true);
+        assertInstanceOf(IOException.class, tempBank.getLastFailure());
+
+        tempBank.createAccount("Bob", List.of(new Payment("2024-01-01", 100, "Salary", 0.05, 0.1)));
+        assertEquals(95.0, tempBank.getAccountBalance("Bob"));
+        assertEquals(List.of("Bob"), new PrivateBank(tempBank).getAllAccounts());
+    }
 
+    @Test
+    void testLogStorageMode() throws Exception {
+        tempBank.createAccount("Bob", List.of(new Payment("2024-01-01", 100, "Salary", 0.05, 0.1)));
+        tempBank.setStorageMode(StorageMode.LOG);
+
+        Transaction rent = new Payment("2024-01-02", -50, "Rent", 0.05, 0.1);
+        Transaction gift = new Transfer("2024-01-03", 20, "Gift", "Alice", "Bob");
+        tempBank.addTransaction("Bob", rent);
+        tempBank.addTransaction("Bob", gift);
+        tempBank.removeTransaction("Bob", rent);
+
+        assertEquals(3, Files.readAllLines(directory.resolve("Konto Bob.log")).size());
+        PrivateBank reloaded = new PrivateBank(tempBank);
+        assertEquals(List.of(new Payment("2024-01-01", 100, "Salary", 0.05, 0.1), gift), reloaded.getTransactions("Bob"));
+
+        tempBank.createAccount("Carol");
+        assertTrue(Files.exists(directory.resolve("Konto Carol.log")));
+        assertTrue(new PrivateBank(tempBank).accountExists("Carol"));
+
+        tempBank.deleteAccount("Bob");
+        assertFalse(Files.exists(directory.resolve("Konto Bob.log")));
+        assertFalse(Files.exists(directory.resolve("Konto Bob.json")));
+    }
 
-}
+    @Test
+    void testCompaction() throws Exception {
+        tempBank.setStorageMode(StorageMode.LOG);
+        tempBank.createAccount("Bob");
+        Transaction rent = new Payment("2024-01-02", -50, "Rent", 0.05, 0.1);
+        tempBank.addTransaction("Bob", new Payment("2024-01-01", 100, "Salary", 0.05, 0.1));
+        tempBank.addTransaction("Bob", rent);
+        tempBank.removeTransaction("Bob", rent);
+
+        try (AccountCompactor compactor = new AccountCompactor(tempBank, 1, 1_000_000)) {
+            assertEquals(1, compactor.compactNow());
+        }
+        assertEquals(0, Files.size(directory.resolve("Konto Bob.log")));
+        assertTrue(Files.exists(directory.resolve("Konto Bob.json")));
+
+        tempBank.addTransaction("Bob", rent);
+        PrivateBank reloaded = new PrivateBank(tempBank);
+        assertEquals(2, reloaded.getTransactions("Bob").size());
+        assertEquals(tempBank.getAccountBalance("Bob"), reloaded.getAccountBalance("Bob"));
+    }
+
+    @Test
+    void testBrokenAccountDoesNotStopCompaction() throws Exception {
+        Files.writeString(directory.resolve("Konto Alice.json"), "not json");
+        Files.writeString(directory.resolve("Konto Alice.log"), "x\n");
+        tempBank = openTempBank(true);
+        tempBank.setStorageMode(StorageMode.LOG);
+        tempBank.createAccount("Bob");
+        Path log = directory.resolve("Konto Bob.log");
+
+        try (AccountCompactor compactor = new AccountCompactor(tempBank, 1, 0)) {
+            compactor.start(10);
+            for (int run = 0; run < 2; run++) {
+                tempBank.addTransaction("Bob", new Payment("2024-01-0" + (run + 1), 100, "Salary", 0.05, 0.1));
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (Files.size(log) > 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(5);
+                }
+                assertEquals(0, Files.size(log));
+            }
+            assertNotNull(compactor.getLastFailure());
+        }
+        assertEquals(2, new PrivateBank(tempBank).getTransactions("Bob").size());
+    }
+
+    @Test
+    void testLazyLoading() throws Exception {
+        tempBank.createAccount("Bob", List.of(new Payment("2024-01-01", 100, "Salary", 0.05, 0.1)));
+        Files.writeString(directory.resolve("Konto Broken.json"), "not json");
+
+        PrivateBank lazyBank = openTempBank(true);
+        assertTrue(lazyBank.isLazyLoading());
+        assertEquals(Set.of("Bob", "Broken"), new HashSet<>(lazyBank.getAllAccounts()));
+        assertEquals(95.0, lazyBank.getAccountBalance("Bob"));
+        lazyBank.addTransaction("Bob", new Payment("2024-01-02", -50, "Rent", 0.05, 0.1));
+        assertEquals(40.0, tempBank.getAccountBalance("Bob"));
+
+        // Vergleich und Hash laden keine Konten, die auf beiden Seiten noch ungeladen sind
+        PrivateBank otherBank = openTempBank(true);
+        assertEquals(lazyBank, otherBank);
+        assertEquals(lazyBank.hashCode(), otherBank.hashCode());
+        assertThrows(RuntimeException.class, () -> lazyBank.getTransactions("Broken"));
+    }
+
+    @Test
+    void testLazyBankChangesDirectory() throws Exception {
+        Path first = Files.createDirectory(directory.resolve("A"));
+        Path second = Files.createDirectory(directory.resolve("B"));
+        new PrivateBank("TempBank", 0.05, 0.1, first.toString())
+                .createAccount("Bob", List.of(new Payment("2024-01-01", 100, "Salary", 0.05, 0.1)));
+        new PrivateBank("TempBank", 0.05, 0.1, second.toString())
+                .createAccount("Carol", List.of(new Payment("2024-01-01", 200, "Salary", 0.05, 0.1)));
+
+        PrivateBank lazyBank = new PrivateBank("TempBank", 0.05, 0.1, first.toString(), true);
+        lazyBank.setDirectoryName(second.toString());
+        assertTrue(lazyBank.getTransactions("Bob").isEmpty());
+        assertEquals(0.0, lazyBank.getAccountBalance("Bob"));
+        assertEquals(List.of("Carol"), lazyBank.getAllAccounts());
+        assertEquals(1, lazyBank.getTransactions("Carol").size());
+    }
+
+    @Test
+    void testParallelLoading() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            tempBank.createAccount("Konto" + i, List.of(
+                    new Payment("2024-01-01", 100 + i, "Salary", 0.05, 0.1),
+                    new Transfer("2024-01-02", i, "Gift", "Alice", "Konto" + i)));
+        }
+
+        PrivateBank parallelBank = openTempBank(true);
+        parallelBank.setLoadParallelism(4);
+        parallelBank.loadAllAccounts();
+        PrivateBank serialBank = openTempBank(true);
+        serialBank.setLoadParallelism(1);
+        serialBank.loadAllAccounts();
+
+        assertEquals(4, parallelBank.getLoadParallelism());
+        assertEquals(serialBank, parallelBank);
+        assertEquals(tempBank, parallelBank);
+        assertThrows(IllegalArgumentException.class, () -> parallelBank.setLoadParallelism(0));
+
+        // close() beendet die Lade-Threads, ein späteres Laden legt sie neu an
+        parallelBank.close();
+        PrivateBank reopened = openTempBank(true);
+        reopened.setLoadParallelism(4);
+        reopened.close();
+        reopened.loadAllAccounts();
+        assertEquals(tempBank, reopened);
+        reopened.close();
+    }
+
+    @Test
+    void testManifest() throws Exception {
+        tempBank.createAccount("Bob Builder");
+        tempBank.addTransaction("Bob Builder", new Payment("2024-01-01", 100, "Salary", 0.05, 0.1));
+        tempBank.createAccount("Eve");
+        tempBank.addTransaction("Eve", new Payment("2024-01-01", -50, "Rent", 0.05, 0.1));
+        tempBank.saveManifest();
+        assertTrue(Files.exists(directory.resolve(BankManifest.FILENAME)));
+
+        // gleiche Größe und Änderungszeit: die Datei wird beim Öffnen nicht gelesen, das Verzeichnis gilt
+        Path bob = directory.resolve("Konto Bob Builder.json");
+        var modified = Files.getLastModifiedTime(bob);
+        Files.writeString(bob, "x".repeat((int) Files.size(bob)));
+        Files.setLastModifiedTime(bob, modified);
+        // geänderte Größe: der Kontostand wird aus der Datei berechnet
+        Files.writeString(directory.resolve("Konto Eve.json"),
+                "[{\"CLASSNAME\":\"Transfer\",\"INSTANCE\":{\"sender\":\"A\",\"recipient\":\"Eve\",\"date\":\"2024-01-02\",\"amount\":250.0,\"description\":\"Gift\"}}]");
+
+        PrivateBank reopened = openTempBank(true);
+        // bis zur ersten Änderung oder Prüfung wird der Ordner nicht gelesen, das Verzeichnis gilt
+        Files.writeString(directory.resolve("Konto Zed.json"), "[]");
+        assertEquals(Set.of("Bob Builder", "Eve"), new HashSet<>(reopened.getAllAccounts()));
+        assertEquals(95.0, reopened.getAccountBalance("Bob Builder"));
+        assertEquals(-55.0, reopened.getAccountBalance("Eve"));
+        assertEquals(List.of("Bob Builder", "Eve"), reopened.verifyManifest());
+        // danach wieder: geänderte Größe, der Kontostand wird aus der Datei berechnet
+        assertEquals(Set.of("Bob Builder", "Eve", "Zed"), new HashSet<>(reopened.getAllAccounts()));
+        assertEquals(250.0, reopened.getAccountBalance("Eve"));
+        assertNull(reopened.getLastFailure());
+
+        // ein beschädigtes Verzeichnis wird gemeldet, die Konten kommen dann aus den Dateien
+        Files.writeString(directory.resolve(BankManifest.FILENAME), "{");
+        PrivateBank rescanned = openTempBank(true);
+        assertInstanceOf(IOException.class, rescanned.getLastFailure());
+        assertEquals(250.0, rescanned.getAccountBalance("Eve"));
+    }
+
+    @Test
+    void testGroupCommit() throws Exception {
+        tempBank.setStorageMode(StorageMode.LOG);
+        tempBank.setDurabilityPolicy(DurabilityPolicy.GROUP_COMMIT, 20);
+        List<Thread> writers = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < 4; t++) {
+            String account = "Account" + t;
+            tempBank.createAccount(account);
+            writers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 25; i++) {
+                        tempBank.addTransaction(account, new Payment("2024-01-01", i + 1, "Salary " + i, 0.05, 0.1));
+                        tempBank.whenDurable().get(10, TimeUnit.SECONDS);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertTrue(failures.isEmpty(), failures.toString());
+        assertEquals(25, new PrivateBank(tempBank).getTransactions("Account3").size());
+
+        // alle Dateien eines Zeitfensters teilen sich einen Durchlauf
+        FileSyncer syncer = new FileSyncer(DurabilityPolicy.GROUP_COMMIT, 50);
+        for (int t = 0; t < 4; t++) {
+            syncer.written(directory.resolve("Konto Account" + t + ".log"));
+        }
+        syncer.whenDurable().get(10, TimeUnit.SECONDS);
+        assertEquals(1, syncer.getSyncCount());
+        syncer.close();
+
+        // nach close() ist nichts mehr offen, spätere Änderungen sind sofort synchronisiert
+        syncer.created(directory.resolve("Konto Account0.log"));
+        assertEquals(2, syncer.getSyncCount());
+        assertTrue(syncer.whenDurable().isDone());
+        tempBank.addTransaction("Account0", new Payment("2024-01-02", 1, "Late", 0.05, 0.1));
+        tempBank.close();
+        assertTrue(tempBank.whenDurable().isDone());
+        assertEquals(26, new PrivateBank(tempBank).getTransactions("Account0").size());
+    }
+
+    @Test
+    void testReplaceSyncsContentBeforeRename() throws Exception {
+        Path file = directory.resolve("Konto Bob.json");
+        Path temp = directory.resolve("Konto Bob.json.tmp");
+        Files.writeString(file, "old");
+        Files.writeString(temp, "new");
+        FileSyncer syncer = new FileSyncer(DurabilityPolicy.GROUP_COMMIT, 50);
+
+        // der Inhalt wird vor dem Umbenennen synchronisiert, nur das Verzeichnis wartet auf das Zeitfenster
+        syncer.replace(temp, file);
+        assertEquals("new", Files.readString(file));
+        assertFalse(Files.exists(temp));
+        assertEquals(1, syncer.getSyncCount());
+        syncer.whenDurable().get(10, TimeUnit.SECONDS);
+        assertEquals(2, syncer.getSyncCount());
+        syncer.close();
+    }
+
+    @Test
+    void testTornLogRecordIsTruncated() throws Exception {
+        tempBank.setStorageMode(StorageMode.LOG);
+        tempBank.createAccount("Bob");
+        tempBank.addTransaction("Bob", new Payment("2024-01-01", 100, "Salary", 0.05, 0.1));
+        tempBank.addTransaction("Bob", new Payment("2024-01-02", -50, "Rent", 0.05, 0.1));
+        Path log = directory.resolve("Konto Bob.log");
+        long intact = Files.size(log);
+
+        // ein beim Absturz abgerissener letzter Eintrag
+        String record = new AccountLog().encode(AccountLog.ADD, new Payment("2024-01-03", 10, "Gift", 0.05, 0.1));
+        Files.writeString(log, record.substring(0, record.length() / 2), StandardOpenOption.APPEND);
+
+        PrivateBank reopened = openTempBank(false);
+        assertEquals(40.0, reopened.getAccountBalance("Bob"));
+        assertEquals(intact, Files.size(log));
+
+        // ein beschädigter, aber vollständiger letzter Eintrag wird ohne Lesen des ganzen Protokolls erkannt
+        Files.writeString(log, record.replace("Gift", "Gold") + "\n",
+                StandardOpenOption.APPEND);
+        assertTrue(new AccountLog().recover(log));
+        assertEquals(intact, Files.size(log));
+        assertFalse(new AccountLog().recover(log));
+
+        // ein Eintrag ohne Prüfsumme ist nicht gültig, auch wenn das JSON vollständig ist
+        Files.writeString(log, record.substring(9) + "\n", StandardOpenOption.APPEND);
+        assertTrue(new AccountLog().recover(log));
+        assertEquals(intact, Files.size(log));
+
+        // ein letzter Eintrag über mehrere Lese-Blöcke
+        String longRecord = new AccountLog().encode(AccountLog.ADD,
+                new Payment("2024-01-03", 10, "Gift ".repeat(5000), 0.05, 0.1));
+        Files.writeString(log, longRecord.substring(0, longRecord.length() - 3), StandardOpenOption.APPEND);
+        assertTrue(new AccountLog().recover(log));
+        assertEquals(intact, Files.size(log));
+    }
+
+    @Test
+    void testAddTransactions() throws Exception {
+        tempBank.createAccount("Bob");
+        tempBank.addTransaction("Bob", new Payment("2024-01-01", 1, "Row 0", 0.05, 0.1));
+        List<Transaction> statement = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            statement.add(new Payment("2024-01-01", i + 1, "Row " + i, 0.05, 0.1));
+        }
+        statement.add(new Payment("2024-01-01", 2, "Row 1", 0.05, 0.1));
+        assertEquals(999, tempBank.addTransactions("Bob", statement));
+        assertEquals(1000, new PrivateBank(tempBank).getTransactions("Bob").size());
+
+        tempBank.setStorageMode(StorageMode.LOG);
+        tempBank.createAccount("Carol");
+        assertEquals(2, tempBank.addTransactions(Map.of("Carol", List.of(
+                new Payment("2024-01-01", 100, "Salary", 0.05, 0.1),
+                new Payment("2024-01-02", -50, "Rent", 0.05, 0.1)))));
+        assertEquals(2, Files.readAllLines(directory.resolve("Konto Carol.log")).size());
+        assertEquals(40.0, new PrivateBank(tempBank).getAccountBalance("Carol"));
+
+        // es wird erst alles geprüft, bevor etwas hinzugefügt wird
+        assertThrows(AccountDoesNotExistException.class, () -> tempBank.addTransactions(Map.of(
+                "Carol", List.of(new Payment("2024-01-03", 10, "Gift", 0.05, 0.1)),
+                "Nobody", List.of(new Payment("2024-01-03", 10, "Gift", 0.05, 0.1)))));
+        Transfer invalid = new Transfer("2024-01-03", 10, "Refund", "Carol", "Bob") {
+            @Override
+            public boolean isValid() {
+                return false;
+            }
+        };
+        assertThrows(TransactionAttributeException.class, () -> tempBank.addTransactions("Carol", List.of(
+                new Payment("2024-01-03", 10, "Gift", 0.05, 0.1), invalid)));
+        assertEquals(2, tempBank.getTransactions("Carol").size());
+    }
+
+    @Test
+    void testTopTransactions() throws Exception {
+        tempBank.setLoadParallelism(2);
+        Payment salary = new Payment("2024-01-01", 1000, "Salary", 0.05, 0.1);
+        Payment rent = new Payment("2024-01-02", -500, "Rent", 0.05, 0.1);
+        Transfer gift = new Transfer("2024-01-03", 950, "Gift", "Bob", "Alice");
+        Payment fee = new Payment("2024-01-04", -5, "Fee", 0.05, 0.1);
+        tempBank.createAccount("Bob", List.of(salary, rent, fee));
+        Transfer bonus = new Transfer("2024-01-05", 100, "Bonus", "Bob", "Carol");
+        OutgoingTransfer loan = new OutgoingTransfer("2024-01-06", 600, "Loan", "Carol", "Bob");
+        tempBank.createAccount("Carol", List.of(gift, bonus, loan));
+
+        assertEquals(List.of(salary), tempBank.getTopTransactions("Bob", 1, true));
+        assertEquals(List.of(rent, fee), tempBank.getTopTransactions("Bob", 5, false));
+        // salary und gift haben nach Zinsen beide 950, Bob kommt alphabetisch zuerst
+        assertEquals(List.of(new RankedTransaction("Bob", salary), new RankedTransaction("Carol", gift),
+                new RankedTransaction("Carol", bonus)), tempBank.getTopTransactions(3, true));
+        assertEquals(List.of(new RankedTransaction("Carol", loan), new RankedTransaction("Bob", rent)),
+                tempBank.getTopTransactions(2, false));
+        assertTrue(tempBank.getTopTransactions("Nobody", 3, true).isEmpty());
+    }
+
+    @Test
+    void testTransactionsByDate() throws Exception {
+        Payment salary = new Payment("12.11.2024", 1000, "Salary", 0.05, 0.1);
+        Payment rent = new Payment("2024-11-01", -500, "Rent", 0.05, 0.1);
+        Transfer gift = new Transfer("30.11.2024 23:59:59", 50, "Gift", "Bob", "Alice");
+        Payment fee = new Payment("01.12.2024", -5, "Fee", 0.05, 0.1);
+        Payment unknown = new Payment("irgendwann", 10, "Unknown", 0.05, 0.1);
+        tempBank.createAccount("Bob", List.of(salary, rent, gift, fee, unknown));
+
+        assertEquals(List.of(rent, salary, gift),
+                tempBank.getTransactions("Bob", LocalDate.of(2024, 11, 1), LocalDate.of(2024, 11, 30)));
+        assertEquals(List.of(fee), tempBank.getTransactions("Bob", LocalDate.of(2024, 12, 1), LocalDate.of(2024, 12, 1)));
+
+        Payment refund = new Payment("2024-11-12", 20, "Refund", 0.05, 0.1);
+        tempBank.addTransaction("Bob", refund);
+        tempBank.removeTransaction("Bob", rent);
+        assertEquals(List.of(salary, refund, gift),
+                tempBank.getTransactions("Bob", LocalDate.of(2024, 11, 1), LocalDate.of(2024, 11, 30)));
+        assertTrue(tempBank.getTransactions("Bob", LocalDate.of(2024, 12, 2), LocalDate.of(2024, 11, 1)).isEmpty());
+        assertTrue(tempBank.getTransactions("Nobody", LocalDate.MIN, LocalDate.MAX).isEmpty());
+        List<Transaction> all = tempBank.getTransactions("Bob", LocalDate.MIN, LocalDate.MAX);
+        assertEquals(List.of(salary, refund, gift, fee), all);
+        assertThrows(UnsupportedOperationException.class, () -> all.add(rent));
+    }
+
+    @Test
+    void testBalanceAsOf() throws Exception {
+        tempBank.createAccount("Bob", List.of(
+                new Payment("01.11.2024", 1000, "Salary", 0.05, 0.1),
+                new Payment("2024-11-15", -500, "Rent", 0.05, 0.1),
+                new Transfer("15.11.2024 12:00:00", 50, "Gift", "Alice", "Bob")));
+
+        assertEquals(0.0, tempBank.getAccountBalanceAsOf("Bob", Instant.parse("2024-10-31T23:59:59Z")));
+        assertEquals(950.0, tempBank.getAccountBalanceAsOf("Bob", Instant.parse("2024-11-14T00:00:00Z")));
+        assertEquals(400.0, tempBank.getAccountBalanceAsOf("Bob", Instant.parse("2024-11-15T11:59:59Z")));
+        assertEquals(450.0, tempBank.getAccountBalanceAsOf("Bob", Instant.parse("2024-11-15T12:00:00Z")));
+
+        tempBank.addTransaction("Bob", new Payment("2024-11-10", -100, "Fee", 0.05, 0.1));
+        assertEquals(840.0, tempBank.getAccountBalanceAsOf("Bob", Instant.parse("2024-11-14T00:00:00Z")));
+        assertEquals(tempBank.getAccountBalance("Bob"), tempBank.getAccountBalanceAsOf("Bob", Instant.MAX));
+        assertEquals(0.0, tempBank.getAccountBalanceAsOf("Nobody", Instant.MAX));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"OBJECTS", "COLUMNS"})
+    void testBalanceAsOfBelowThousandths(String layout) throws Exception {
+        tempBank.setAccountLayout(AccountLayout.valueOf(layout));
+        // jeder Betrag ist 9,50038: einzeln gerundet 9,5, als double-Summe gerundet wären es 28,501
+        tempBank.createAccount("Bob", List.of(
+                new Payment("2024-01-01", 10.0004, "First", 0.05, 0.1),
+                new Payment("2024-01-02", 10.0004, "Second", 0.05, 0.1),
+                new Payment("2024-01-03", 10.0004, "Third", 0.05, 0.1)));
+
+        assertEquals(28.5, tempBank.getAccountBalance("Bob"));
+        assertEquals(tempBank.getAccountBalance("Bob"), tempBank.getAccountBalanceAsOf("Bob", Instant.MAX));
+        assertEquals(19.0, tempBank.getAccountBalanceAsOf("Bob", Instant.parse("2024-01-02T00:00:00Z")));
+
+        PrivateBank reloaded = openTempBank(false);
+        reloaded.setAccountLayout(AccountLayout.valueOf(layout));
+        assertEquals(reloaded.getAccountBalance("Bob"), reloaded.getAccountBalanceAsOf("Bob", Instant.MAX));
+    }
+
+    @Test
+    void testColumnarLayout() throws Exception {
+        PrivateBank objects = openTempBank(false);
+        objects.createAccount("Bob", List.of(
+                new Payment("01.11.2024", 1000, "Salary", 0.05, 0.1),
+                new Payment("2024-11-15", -500, "Rent", 0.05, 0.1),
+                new OutgoingTransfer("15.11.2024", 50, "Gift", "Bob", "Alice")));
+
+        PrivateBank columns = openTempBank(false);
+        columns.setAccountLayout(AccountLayout.COLUMNS);
+        assertEquals(objects, columns);
+        Payment fee = new Payment("2024-11-20", -10, "Fee", 0.05, 0.1);
+        columns.addTransaction("Bob", fee);
+        assertThrows(TransactionAlreadyExistException.class, () -> columns.addTransaction("Bob", fee));
+        objects = openTempBank(false);
+        assertEquals(4, objects.getTransactions("Bob").size());
+        assertEquals(objects.getTransactions("Bob"), columns.getTransactions("Bob"));
+        assertEquals(objects.getAccountBalance("Bob"), columns.getAccountBalance("Bob"));
+        assertEquals(objects.getTransactionsSorted("Bob", false), columns.getTransactionsSorted("Bob", false));
+
+        columns.setIncomingInterest(0.2);
+        assertEquals(1000 * 0.8 - 500 * 1.1 - 50 - 10 * 1.1, columns.getAccountBalance("Bob"), 1e-9);
+        assertEquals(new PrivateBank("TempBank", 0.2, 0.1, directory.toString()), columns);
+    }
+
+    @Test
+    void testStringsAreSharedAfterLoading() throws Exception {
+        tempBank.createAccount("Bob", List.of(
+                new Payment("01.11.2024", -500, "Miete", 0.05, 0.1),
+                new OutgoingTransfer("02.11.2024", 50, "Geschenk", "Bob", "Alice")));
+        tempBank.createAccount("Carol", List.of(
+                new Payment("01.11.2024", -700, "Miete", 0.05, 0.1),
+                new IncomingTransfer("02.11.2024", 20, "Geschenk", "Alice", "Carol")));
+
+        PrivateBank reloaded = new PrivateBank(tempBank);
+        List<Transaction> bob = reloaded.getTransactions("Bob");
+        List<Transaction> carol = reloaded.getTransactions("Carol");
+        assertSame(bob.get(0).getDescription(), carol.get(0).getDescription());
+        assertSame(((Transfer) bob.get(1)).getRecipient(), ((Transfer) carol.get(1)).getSender());
+
+        reloaded.setAccountLayout(AccountLayout.COLUMNS);
+        assertSame(reloaded.getTransactions("Bob").get(0).getDescription(),
+                reloaded.getTransactions("Carol").get(0).getDescription());
+    }
+
+    @Test
+    void testAccountsCanBeRecreatedAfterDeleting() throws Exception {
+        tempBank.createAccount("Bob", List.of(new Payment("01.11.2024", -500, "Miete", 0.05, 0.1)));
+        tempBank.createAccount("Carol", List.of(new Payment("01.11.2024", 700, "Gehalt", 0.05, 0.1)));
+        for (int i = 0; i < 20; i++) {
+            tempBank.deleteAccount("Bob");
+            assertFalse(tempBank.accountExists("Bob"));
+            assertEquals(0.0, tempBank.getAccountBalance("Bob"));
+            tempBank.createAccount("Bob", List.of(new Payment("0" + (i % 9 + 1) + ".11.2024", i, "Miete", 0.05, 0.1)));
+        }
+        assertEquals(Set.of("Bob", "Carol"), new HashSet<>(tempBank.getAllAccounts()));
+        assertEquals(19 * 0.95, tempBank.getAccountBalance("Bob"), 1e-9);
+        assertEquals(700 * 0.95, tempBank.getAccountBalance("Carol"), 1e-9);
+        assertEquals(tempBank, new PrivateBank(tempBank));
+    }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"OBJECTS", "COLUMNS"})
+    void testSortedBelowThousandths(String layout) throws Exception {
+        tempBank = new PrivateBank("TempBank", 0, 0, directory.toString());
+        tempBank.setAccountLayout(AccountLayout.valueOf(layout));
+        Payment larger = new Payment("2024-01-01", 10.0004, "Larger");
+        Payment smaller = new Payment("2024-01-02", 10.0002, "Smaller");
+        Transfer rounded = new Transfer("2024-01-03", 10.0003, "Rounded", "Alice", "Bob");
+        tempBank.createAccount("Bob", List.of(larger, smaller, rounded));
+
+        // sortiert wird nach calculate() wie bisher, nicht nach den auf Tausendstel gerundeten Beträgen
+        assertEquals(List.of(rounded, smaller, larger), tempBank.getTransactionsSorted("Bob", true));
+        assertEquals(List.of(larger, smaller, rounded), tempBank.getTransactionsSorted("Bob", false));
+        assertEquals(List.of(larger, smaller), tempBank.getTopTransactions("Bob", 2, true));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"OBJECTS", "COLUMNS"})
+    void testPartitionsBelowThousandths(String layout) throws Exception {
+        tempBank = new PrivateBank("TempBank", 0, 0, directory.toString());
+        tempBank.setAccountLayout(AccountLayout.valueOf(layout));
+        Payment salary = new Payment("2024-01-01", 100, "Salary");
+        Payment cent = new Payment("2024-01-02", 0.0004, "Cent");
+        Payment rent = new Payment("2024-01-03", -50, "Rent");
+        Payment fee = new Payment("2024-01-04", -0.0004, "Fee");
+        tempBank.createAccount("Bob", List.of(salary, cent, rent, fee));
+
+        // wie bisher zählt das Vorzeichen von calculate(), auch wenn der Betrag gerundet 0 ist
+        assertEquals(List.of(salary, cent), tempBank.getTransactionsByType("Bob", true));
+        assertEquals(List.of(rent, fee), tempBank.getTransactionsByType("Bob", false));
+        assertEquals(2, tempBank.getTransactionCountByType("Bob", true));
+        assertEquals(2, tempBank.getTransactionCountByType("Bob", false));
+
+        tempBank.removeTransaction("Bob", cent);
+        assertEquals(List.of(salary), tempBank.getTransactionsByType("Bob", true));
+        assertEquals(1, tempBank.getTransactionCountByType("Bob", true));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"OBJECTS", "COLUMNS"})
+    void testRateChangeLeavesPaymentsUntouched(String layout) throws Exception {
+        tempBank.setAccountLayout(AccountLayout.valueOf(layout));
+        Payment salary = new Payment("01.11.2024", 1000, "Gehalt", 0.3, 0.3);
+        tempBank.createAccount("Bob", List.of(salary, new Payment("02.11.2024", -500, "Miete")));
+        assertEquals(0.05, salary.getIncomingInterest());
+        assertEquals(950 - 550, tempBank.getAccountBalance("Bob"), 1e-9);
+        tempBank.saveManifest();
+        int hash = salary.hashCode();
+
+        tempBank.setIncomingInterest(0.2);
+        tempBank.setOutgoingInterest(0);
+        assertEquals(hash, salary.hashCode());
+        assertEquals(800.0, salary.calculate());
+        assertEquals(800 - 500, tempBank.getAccountBalance("Bob"), 1e-9);
+        assertEquals(800.0, tempBank.getAccountSumByType("Bob", true));
+        assertEquals(800.0, tempBank.getTransactionsSorted("Bob", false).get(0).calculate());
+        assertTrue(tempBank.containsTransaction("Bob", new Payment("01.11.2024", 1000, "Gehalt", 0.5, 0.5)));
+
+        // die Kontostände im Verzeichnis gehören zu den alten Zinsen
+        PrivateBank lazy = openTempBank(true);
+        lazy.setIncomingInterest(0.2);
+        lazy.setOutgoingInterest(0);
+        assertEquals(800 - 500, lazy.getAccountBalance("Bob"), 1e-9);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"OBJECTS", "COLUMNS"})
+    void testRemoveAfterOwnInterest(String layout) throws Exception {
+        tempBank.setAccountLayout(AccountLayout.valueOf(layout));
+        tempBank.createAccount("Bob", List.of(new Payment("01.11.2024", 1000, "Gehalt"),
+                new Payment("02.11.2024", -500, "Miete")));
+        tempBank.getTransactionsSorted("Bob", true);
+        Payment salary = (Payment) tempBank.getTransactions("Bob").get(0);
+        salary.setIncomingInterest(0.5);
+
+        tempBank.removeTransaction("Bob", salary);
+        assertEquals(-550.0, tempBank.getAccountBalance("Bob"));
+        assertEquals(0, tempBank.getTransactionsByType("Bob", true).size());
+        assertEquals(0.0, tempBank.getAccountSumByType("Bob", true));
+        assertEquals(1, tempBank.getTransactionsSorted("Bob", false).size());
+        assertEquals(-550.0, openTempBank(false).getAccountBalance("Bob"));
+    }
+}
@@ -0,0 +1,60 @@
+package bank;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringDictionaryTest {
+
+    @Test
+    void testInternAndFind() {
+        StringDictionary dictionary = new StringDictionary();
+        assertEquals(StringDictionary.NULL, dictionary.intern(null));
+        assertEquals(StringDictionary.ABSENT, dictionary.find("Miete"));
+        int rent = dictionary.intern("Miete");
+        assertEquals(rent, dictionary.intern(new String("Miete")));
+        assertEquals(rent, dictionary.find("Miete"));
+        assertNotEquals(rent, dictionary.intern("Stromrechnung"));
+        assertEquals("Miete", dictionary.get(rent));
+        assertNull(dictionary.get(StringDictionary.NULL));
+
+        String copy = new String("Stromrechnung");
+        assertNotSame(copy, dictionary.canonical("Stromrechnung"));
+        assertSame(dictionary.canonical("Stromrechnung"), dictionary.canonical(copy));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void testConcurrentIntern() throws Exception {
+        StringDictionary dictionary = new StringDictionary();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                results.add(executor.submit(() -> {
+                    int[] ids = new int[1000];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = dictionary.intern("Name " + i);
+                    }
+                    return ids;
+                }));
+            }
+            int[] first = results.get(0).get();
+            for (Future<int[]> result : results) {
+                assertArrayEquals(first, result.get());
+            }
+            for (int i = 0; i < first.length; i++) {
+                assertEquals("Name " + i, dictionary.get(first[i]));
+            }
+            assertEquals(1000, dictionary.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
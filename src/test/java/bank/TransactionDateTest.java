@@ -0,0 +1,41 @@
+package bank;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionDateTest {
+
+    @Test
+    void testFormats() {
+        long day = LocalDate.of(2024, 11, 12).toEpochDay() * 86_400;
+        assertEquals(day, TransactionDate.parse("12.11.2024"));
+        assertEquals(day, TransactionDate.parse("2024-11-12"));
+        assertEquals(day, TransactionDate.startOf(LocalDate.of(2024, 11, 12)));
+        assertEquals(LocalDateTime.of(2024, 11, 12, 8, 30, 5).toEpochSecond(ZoneOffset.UTC),
+                TransactionDate.parse("12.11.2024 08:30:05"));
+        assertEquals(-86_400, TransactionDate.parse("31.12.1969"));
+    }
+
+    @Test
+    void testUnknownFormats() {
+        assertEquals(TransactionDate.UNKNOWN, TransactionDate.parse(null));
+        assertEquals(TransactionDate.UNKNOWN, TransactionDate.parse(""));
+        assertEquals(TransactionDate.UNKNOWN, TransactionDate.parse("31.02.2024"));
+        assertEquals(TransactionDate.UNKNOWN, TransactionDate.parse("12/11/2024"));
+        assertEquals(TransactionDate.UNKNOWN, TransactionDate.parse("1a.11.2024"));
+        assertEquals(TransactionDate.UNKNOWN, TransactionDate.parse("12.11.2024 25:00:00"));
+    }
+
+    @Test
+    void testEpochSecondFollowsDate() {
+        Payment payment = new Payment("12.11.2024", 100, "Salary", 0.05, 0.1);
+        assertEquals(TransactionDate.parse("12.11.2024"), payment.getEpochSecond());
+        payment.setDate("2024-11-13");
+        assertEquals(TransactionDate.parse("13.11.2024"), payment.getEpochSecond());
+    }
+}
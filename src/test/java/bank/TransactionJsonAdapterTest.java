@@ -0,0 +1,55 @@
+package bank;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionJsonAdapterTest {
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Transaction.class, new TransactionJsonAdapter())
+            .create();
+
+    @Test
+    void testWritesExistingFormat() {
+        Payment payment = new Payment("08.12.2024", 110.0, "Beschreibung", 0.1, 0.2);
+        assertEquals("{\"CLASSNAME\":\"Payment\",\"INSTANCE\":{\"incomingInterest\":0.1,\"outgoingInterest\":0.2,"
+                + "\"date\":\"08.12.2024\",\"amount\":110.0,\"description\":\"Beschreibung\"}}",
+                gson.toJson(payment, Transaction.class));
+
+        Transfer transfer = new OutgoingTransfer("2024-01-03", 20, "Gift", "Bob", "Alice");
+        assertEquals("{\"CLASSNAME\":\"OutgoingTransfer\",\"INSTANCE\":{\"sender\":\"Bob\",\"recipient\":\"Alice\","
+                + "\"date\":\"2024-01-03\",\"amount\":20.0,\"description\":\"Gift\"}}",
+                gson.toJson(transfer, Transaction.class));
+    }
+
+    @Test
+    void testRoundTrip() {
+        List<Transaction> transactions = List.of(
+                new Payment("2024-01-01", -50, "Rent", 0.05, 0.1),
+                new Transfer("2024-01-02", 30, "Loan", "Alice", "Bob"),
+                new IncomingTransfer("2024-01-03", 40, "Gift", "Carol", "Bob"),
+                new OutgoingTransfer("2024-01-04", 10, "Pizza", "Bob", "Dave"));
+        for (Transaction transaction : transactions) {
+            Transaction copy = gson.fromJson(gson.toJson(transaction, Transaction.class), Transaction.class);
+            assertEquals(transaction, copy);
+            assertSame(transaction.getClass(), copy.getClass());
+        }
+    }
+
+    @Test
+    void testReadsInstanceBeforeClassName() {
+        Transaction transaction = gson.fromJson("{\"INSTANCE\":{\"date\":\"2024-01-02\",\"amount\":30.0},"
+                + "\"CLASSNAME\":\"Transfer\"}", Transaction.class);
+        assertEquals(new Transfer("2024-01-02", 30, null), transaction);
+    }
+
+    @Test
+    void testUnknownClass() {
+        assertThrows(RuntimeException.class, () -> gson.fromJson("{\"CLASSNAME\":\"Loan\",\"INSTANCE\":{}}", Transaction.class));
+    }
+}